@@ -0,0 +1,22 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Label catalog settings, bound from {@code conan.label-catalog.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.label-catalog")
+public class LabelCatalogProperties {
+
+    /**
+     * How often the label snapshot is reloaded, picking up labels changed by other
+     * instances or outside the application.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,86 @@
+package com.happiness.conan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets only as many requests run at once as the database connection pool can serve,
+ * queueing the others in arrival order. Tomcat's worker pool (200 threads by default)
+ * is far larger than the connection pool, so without this the surplus requests wait
+ * on the pool while holding a worker each, and time out there. A request left waiting
+ * longer than the timeout gets 503 and a {@code Retry-After} header instead.
+ * <p>
+ * Running requests on virtual threads needs Java 21 and is not supported while the
+ * build targets Java 17. Once it does, this limit is what keeps virtual threads from
+ * flooding the pool.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "conan.request-limit", name = "enabled", havingValue = "true")
+public class RequestLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLimitFilter.class);
+
+    // Hikari's default pool size
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+
+    public RequestLimitFilter(RequestLimitProperties properties, DataSource dataSource) {
+        int maxConcurrent = properties.getMaxConcurrent() > 0 ? properties.getMaxConcurrent() : poolSize(dataSource);
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.timeoutNanos = properties.getTimeout().toNanos();
+        log.info("Handling at most {} requests at once", maxConcurrent);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+
+    // Health checks must answer while the application is saturated
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        // Released once the handler returns; a streamed response holds it until complete
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Concurrent request limit settings, bound from {@code conan.request-limit.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.request-limit")
+public class RequestLimitProperties {
+
+    /**
+     * Whether requests wait for a permit before being handled, rather than for a
+     * database connection once a worker thread has picked them up.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Requests handled at once; 0 uses the database connection pool size.
+     */
+    private int maxConcurrent = 0;
+
+    /**
+     * How long a request waits for a permit before it is refused with 503.
+     */
+    private Duration timeout = Duration.ofSeconds(5);
+}
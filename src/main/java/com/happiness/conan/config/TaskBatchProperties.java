@@ -0,0 +1,26 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Partitioned batch update settings, bound from {@code conan.batch.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.batch")
+public class TaskBatchProperties {
+
+    /**
+     * Most items applied per transaction. Smaller partitions hold their locks for less
+     * time; a batch no larger than this runs as a single transaction.
+     */
+    private int partitionSize = 1_000;
+
+    /**
+     * Partitions applied at once, shared by all requests. Each holds a database
+     * connection while it runs, so keep it well below the connection pool size.
+     */
+    private int threads = 4;
+}
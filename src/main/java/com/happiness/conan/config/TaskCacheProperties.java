@@ -0,0 +1,29 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Task snapshot cache settings, bound from {@code conan.task-cache.*}. The cache only
+ * sees changes made through this instance; with several instances, the time to live
+ * bounds how long another instance's change stays invisible.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.task-cache")
+public class TaskCacheProperties {
+
+    /**
+     * Most task snapshots kept; the least recently useful ones are evicted first.
+     * Zero disables caching.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * How long a snapshot is served after it was loaded.
+     */
+    private Duration timeToLive = Duration.ofMinutes(10);
+}
@@ -0,0 +1,38 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Server-sent task change feed settings, bound from {@code conan.change-feed.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.change-feed")
+public class TaskChangeFeedProperties {
+
+    /**
+     * Most distinct tasks with an undelivered change per subscriber; a subscriber
+     * falling further behind is told to resync instead.
+     */
+    private int bufferSize = 256;
+
+    /**
+     * How long a stream stays open; clients reconnect once it ends.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * Threads writing events to subscribers, shared by all of them.
+     */
+    private int senderThreads = 2;
+
+    /**
+     * Longest a single event write may block on a slow client. The subscriber is then
+     * dropped, and another sender thread stands in until the write returns.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
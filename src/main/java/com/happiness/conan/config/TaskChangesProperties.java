@@ -0,0 +1,34 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Changes feed settings, bound from {@code conan.changes.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.changes")
+public class TaskChangesProperties {
+
+    /**
+     * Longest expected write transaction. A task stamped this recently may still be
+     * joined by an earlier-stamped one committing late, so watermarks never go past
+     * it and such changes are reported again on the next call.
+     */
+    private Duration settleTime = Duration.ofSeconds(5);
+
+    /**
+     * How long deleted tasks are remembered. A client whose watermark is older gets a
+     * full sync instead.
+     */
+    private Duration retention = Duration.ofDays(30);
+
+    /**
+     * How often deleted tasks past the retention are forgotten.
+     */
+    private Duration pruneInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,20 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Task export settings, bound from {@code conan.export.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.export")
+public class TaskExportProperties {
+
+    /**
+     * Rows fetched per database round trip while streaming an export. It also bounds
+     * how many rows are held in memory at once.
+     */
+    private int fetchSize = 1_000;
+}
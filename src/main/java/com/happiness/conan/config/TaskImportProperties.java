@@ -0,0 +1,25 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Task import settings, bound from {@code conan.import.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.import")
+public class TaskImportProperties {
+
+    /**
+     * Tasks inserted per transaction. A batch failing in the database is retried one
+     * task at a time, to report the lines at fault.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Line errors reported in a response; further failing lines are only counted.
+     */
+    private int maxErrors = 1_000;
+}
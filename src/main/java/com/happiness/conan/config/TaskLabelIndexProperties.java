@@ -0,0 +1,24 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-memory label index settings, bound from {@code conan.label-index.*}. The index
+ * only sees changes made through this instance, so keep it off when several
+ * instances write to the same database.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.label-index")
+public class TaskLabelIndexProperties {
+
+    private boolean enabled;
+
+    /**
+     * Largest candidate set handed to the database as an id list; larger results
+     * fall back to the SQL label predicate.
+     */
+    private int maxCandidates = 10_000;
+}
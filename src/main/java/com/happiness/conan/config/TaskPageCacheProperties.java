@@ -0,0 +1,34 @@
+package com.happiness.conan.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Task list page cache settings, bound from {@code conan.page-cache.*}. Writes through
+ * this instance invalidate every cached page at once, but another instance's writes
+ * stay invisible until the time to live expires, so the cache is meant for
+ * single-instance deployments only.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.page-cache")
+public class TaskPageCacheProperties {
+
+    /**
+     * Whether list pages are cached. Leave off when several instances share the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Most pages kept.
+     */
+    private long maximumSize = 1_000;
+
+    /**
+     * How long a page is served after it was listed.
+     */
+    private Duration timeToLive = Duration.ofMinutes(1);
+}
@@ -0,0 +1,33 @@
+package com.happiness.conan.config;
+
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Task search settings, bound from {@code conan.search.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "conan.search")
+public class TaskSearchProperties {
+
+    /**
+     * Search backend. {@code fulltext} needs the PostgreSQL vendor migrations; {@code trigram}
+     * also runs the {@code db/optional/trgm} migrations, which install {@code pg_trgm}.
+     */
+    private TaskSearchMode mode = TaskSearchMode.like;
+
+    /**
+     * Default word similarity threshold for fuzzy search, between 0 and 1.
+     */
+    private double fuzzyThreshold = 0.6;
+
+    /**
+     * In index mode, the largest candidate set handed to the database as an id list;
+     * broader terms fall back to a plain LIKE query. Each id is a bind parameter, so
+     * keep this well below the driver's limit (32767 on PostgreSQL).
+     */
+    private int indexMaxCandidates = 1_000;
+}
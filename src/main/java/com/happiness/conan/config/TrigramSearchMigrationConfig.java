@@ -0,0 +1,70 @@
+package com.happiness.conan.config;
+
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import org.flywaydb.core.api.Location;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Runs the {@code db/optional/trgm} migrations, which install {@code pg_trgm} and the
+ * trigram indexes, only in the trigram search mode. Other deployments never need the
+ * right to create extensions, which managed databases often withhold.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "conan.search", name = "mode", havingValue = "trigram")
+public class TrigramSearchMigrationConfig {
+
+    private static final Location TRIGRAM_MIGRATIONS = new Location("classpath:db/optional/trgm");
+
+    @Bean
+    public FlywayConfigurationCustomizer trigramMigrations() {
+        return configuration -> configuration.locations(
+                Stream.concat(Arrays.stream(configuration.getLocations()), Stream.of(TRIGRAM_MIGRATIONS))
+                        .toArray(Location[]::new));
+    }
+
+    /**
+     * Checks that {@code pg_trgm} is installed or may be installed before migrating,
+     * rather than failing midway on a permission error.
+     */
+    @Bean
+    public FlywayMigrationStrategy trigramMigrationStrategy() {
+        return flyway -> {
+            checkTrigramExtension(flyway.getConfiguration().getDataSource());
+            flyway.migrate();
+        };
+    }
+
+    private static void checkTrigramExtension(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                throw new IllegalStateException(
+                        "conan.search.mode=trigram needs PostgreSQL; choose another search mode");
+            }
+            // pg_trgm is a trusted extension: the CREATE privilege on the database is enough
+            try (ResultSet result = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM pg_extension"
+                    + " WHERE extname = 'pg_trgm') OR has_database_privilege(current_database(), 'CREATE')")) {
+                result.next();
+                if (!result.getBoolean(1)) {
+                    throw new IllegalStateException("conan.search.mode=trigram needs the pg_trgm extension, "
+                            + "which this database role cannot create: have an administrator run "
+                            + "CREATE EXTENSION pg_trgm, or choose another search mode");
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not check for the pg_trgm extension", e);
+        }
+    }
+}
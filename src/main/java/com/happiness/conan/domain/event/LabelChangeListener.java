@@ -0,0 +1,29 @@
+package com.happiness.conan.domain.event;
+
+import com.happiness.conan.domain.model.Label;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener turning label writes into {@link LabelChangedEvent}s. Hibernate
+ * obtains it from the Spring bean factory, which injects the publisher.
+ */
+@RequiredArgsConstructor
+public class LabelChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    void labelSaved(Label label) {
+        eventPublisher.publishEvent(LabelChangedEvent.saved(label.getId()));
+    }
+
+    @PostRemove
+    void labelDeleted(Label label) {
+        eventPublisher.publishEvent(LabelChangedEvent.deleted(label.getId()));
+    }
+}
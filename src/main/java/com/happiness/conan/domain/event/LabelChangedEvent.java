@@ -0,0 +1,22 @@
+package com.happiness.conan.domain.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever a label is inserted, updated or deleted, whoever changed it.
+ */
+@Value
+public class LabelChangedEvent {
+
+    Long labelId;
+
+    boolean deleted;
+
+    public static LabelChangedEvent saved(Long labelId) {
+        return new LabelChangedEvent(labelId, false);
+    }
+
+    public static LabelChangedEvent deleted(Long labelId) {
+        return new LabelChangedEvent(labelId, true);
+    }
+}
@@ -0,0 +1,54 @@
+package com.happiness.conan.domain.event;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskRow;
+import lombok.Value;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by the task service whenever a task is created, updated, toggled or
+ * deleted. Carries a snapshot of the indexed state, so listeners running after
+ * commit never touch the entity.
+ */
+@Value
+public class TaskChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        TOGGLED,
+        DELETED
+    }
+
+    Type type;
+
+    Long taskId;
+
+    String title;
+
+    String description;
+
+    Set<Long> labelIds;
+
+    public static TaskChangedEvent saved(Type type, Task task) {
+        Set<Long> labelIds = task.getLabels() == null ? Set.of() : task.getLabels().stream()
+                .map(Label::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new TaskChangedEvent(type, task.getId(), task.getTitle(), task.getDescription(), labelIds);
+    }
+
+    public static TaskChangedEvent saved(Type type, TaskRow row, Set<Long> labelIds) {
+        return new TaskChangedEvent(type, row.getId(), row.getTitle(), row.getDescription(), Set.copyOf(labelIds));
+    }
+
+    public static TaskChangedEvent deleted(Long taskId) {
+        return new TaskChangedEvent(Type.DELETED, taskId, null, null, Set.of());
+    }
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
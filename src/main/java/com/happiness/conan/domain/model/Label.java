@@ -1,10 +1,13 @@
 package com.happiness.conan.domain.model;
 
+import com.happiness.conan.domain.event.LabelChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,10 +20,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @Builder
 @Table(name = "labels")
+@EntityListeners(LabelChangeListener.class)
 public class Label {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "labels_id_seq")
+    @SequenceGenerator(name = "labels_id_seq", sequenceName = "labels_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,45 @@
+package com.happiness.conan.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tombstone of a deleted task, reported by the changes feed.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "task_deletions")
+public class TaskDeletion implements Persistable<Long> {
+
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @Override
+    public Long getId() {
+        return taskId;
+    }
+
+    /**
+     * Tombstones are only ever inserted, so saving one never needs to look it up first.
+     */
+    @Override
+    @Transient
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -2,8 +2,19 @@ package com.happiness.conan.domain.repository;
 
 import com.happiness.conan.domain.model.Label;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
 public interface LabelRepository extends JpaRepository<Label, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Those of the given ids that still name a label.
+     */
+    @Query("SELECT l.id FROM Label l WHERE l.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,33 @@
+package com.happiness.conan.domain.repository;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Tasks created, updated or deleted after a watermark, oldest change first.
+ */
+@Value
+public class TaskChanges {
+
+    List<TaskRow> tasks;
+
+    List<Long> deletedIds;
+
+    /**
+     * Position to ask for the next changes from. Changes near it may be reported again.
+     */
+    TaskCursor watermark;
+
+    /**
+     * Whether more changes are already waiting after the watermark.
+     */
+    boolean hasMore;
+
+    /**
+     * Whether the requested watermark was older than the deletion log is kept. The
+     * changes then start over as a full sync, and local copies of tasks they never
+     * report are stale.
+     */
+    boolean resync;
+}
@@ -0,0 +1,15 @@
+package com.happiness.conan.domain.repository;
+
+/**
+ * How the total number of matching tasks is computed for a list page.
+ */
+public enum TaskCountMode {
+    /** Separate {@code COUNT} query. */
+    exact,
+    /** {@code COUNT(*) OVER()} evaluated by the page query itself. */
+    window,
+    /** Planner statistics or a bounded count, whichever applies. */
+    estimate,
+    /** No total; only whether a next page exists. */
+    none
+}
@@ -0,0 +1,130 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Task;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Keyset position in a sorted task listing. A cursor holds the sort field and
+ * direction, and, once a page has been read, the sort key and id of its last row.
+ * Rows with a {@code null} sort key always come last, whatever the direction.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TaskCursor {
+
+    public static final Set<String> SORT_FIELDS = Set.of("createdAt", "updatedAt", "dueDate", "priority");
+
+    private static final String SEPARATOR = "|";
+
+    String sortField;
+
+    Sort.Direction direction;
+
+    Object lastValue;
+
+    Long lastId;
+
+    /**
+     * Cursor positioned before the first row.
+     */
+    public static TaskCursor first(String sortField, Sort.Direction direction) {
+        if (!SORT_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortField);
+        }
+        return new TaskCursor(sortField, direction, null, null);
+    }
+
+    /**
+     * Cursor positioned right before the first row with the given sort key.
+     */
+    public static TaskCursor at(String sortField, Sort.Direction direction, Object value) {
+        TaskCursor cursor = first(sortField, direction);
+        // Ids start at 1, so every row with that key follows id 0
+        return new TaskCursor(cursor.sortField, cursor.direction, value, 0L);
+    }
+
+    /**
+     * Cursor positioned right after the given row.
+     */
+    public TaskCursor after(TaskRow row) {
+        return after(sortKey(row), row.getId());
+    }
+
+    /**
+     * Cursor positioned right after the row with the given sort key and id.
+     */
+    public TaskCursor after(Object value, Long id) {
+        return new TaskCursor(sortField, direction, value, id);
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    public boolean isNullable() {
+        return "dueDate".equals(sortField);
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     */
+    public String encode() {
+        String value = lastValue == null ? "" : lastValue.toString();
+        String raw = String.join(SEPARATOR, sortField, direction.name(), value,
+                lastId == null ? "" : lastId.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static TaskCursor decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split("\\" + SEPARATOR, -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+
+        TaskCursor cursor = first(parts[0], Sort.Direction.fromString(parts[1]));
+        if (parts[3].isEmpty()) {
+            return cursor;
+        }
+
+        Object value = parts[2].isEmpty() ? null : parseSortKey(cursor.sortField, parts[2]);
+        if (value == null && !cursor.isNullable()) {
+            throw new IllegalArgumentException("Missing sort key for " + cursor.sortField);
+        }
+        return new TaskCursor(cursor.sortField, cursor.direction, value, Long.valueOf(parts[3]));
+    }
+
+    private Object sortKey(TaskRow row) {
+        return switch (sortField) {
+            case "dueDate" -> row.getDueDate();
+            case "priority" -> row.getPriority();
+            case "updatedAt" -> row.getUpdatedAt();
+            default -> row.getCreatedAt();
+        };
+    }
+
+    private static Object parseSortKey(String sortField, String value) {
+        try {
+            return switch (sortField) {
+                case "priority" -> Task.Priority.valueOf(value);
+                default -> LocalDateTime.parse(value);
+            };
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Malformed sort key: " + value, e);
+        }
+    }
+}
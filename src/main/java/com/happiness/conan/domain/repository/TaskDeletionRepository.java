@@ -0,0 +1,33 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.TaskDeletion;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskDeletionRepository extends JpaRepository<TaskDeletion, Long> {
+
+    /**
+     * Tombstones after (deletedAt, taskId), in that order. The bound on deletedAt alone
+     * keeps the scan within an index range.
+     */
+    @Query("SELECT d FROM TaskDeletion d WHERE d.deletedAt >= :deletedAt"
+            + " AND (d.deletedAt > :deletedAt OR d.taskId > :taskId) ORDER BY d.deletedAt, d.taskId")
+    List<TaskDeletion> findAfter(@Param("deletedAt") LocalDateTime deletedAt, @Param("taskId") Long taskId,
+            Limit limit);
+
+    @Query("SELECT MAX(d.deletedAt) FROM TaskDeletion d")
+    Optional<LocalDateTime> findLastDeletedAt();
+
+    @Modifying
+    @Query("DELETE FROM TaskDeletion d WHERE d.deletedAt < :before")
+    int deleteAllDeletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,122 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Task;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Normalized set of task list predicates. Every field is optional; a {@code null}
+ * (or empty) field means the corresponding predicate is not applied.
+ */
+@Value
+@Builder(toBuilder = true)
+public class TaskFilter {
+
+    Boolean completed;
+
+    Task.Priority priority;
+
+    List<Long> labelIds;
+
+    /**
+     * How {@link #labelIds} combine; {@code null} means {@link TaskLabelMode#all}.
+     */
+    TaskLabelMode labelMode;
+
+    LocalDateTime dueFrom;
+
+    LocalDateTime dueTo;
+
+    String search;
+
+    /**
+     * Match the search term by trigram similarity instead of as an exact substring.
+     */
+    boolean fuzzy;
+
+    /**
+     * Similarity threshold for fuzzy search, between 0 and 1; {@code null} for the default.
+     */
+    Double similarity;
+
+    /**
+     * Builds a filter from raw request parameters. Blank values, the "all" status
+     * and unknown priorities are treated as absent.
+     */
+    public static TaskFilter of(String status, String priority, List<Long> labels,
+            LocalDate startDate, LocalDate endDate, String search) {
+        TaskFilterBuilder filter = TaskFilter.builder();
+
+        if (status != null && !status.equals("all")) {
+            filter.completed("completed".equals(status));
+        }
+
+        if (priority != null) {
+            try {
+                filter.priority(Task.Priority.valueOf(priority));
+            } catch (IllegalArgumentException e) {
+                // Invalid priority, ignore the filter
+            }
+        }
+
+        if (labels != null && !labels.isEmpty()) {
+            filter.labelIds(labels.stream().distinct().toList());
+        }
+
+        if (startDate != null) {
+            filter.dueFrom(startDate.atStartOfDay());
+        }
+        if (endDate != null) {
+            filter.dueTo(endDate.atTime(LocalTime.MAX));
+        }
+
+        if (search != null && !search.isBlank()) {
+            filter.search(search.trim());
+        }
+
+        return filter.build();
+    }
+
+    /**
+     * Equivalent filter in canonical form: label ids sorted and unique, and no value
+     * for a predicate that is not applied. Equivalent filters normalize to equal ones.
+     */
+    public TaskFilter normalized() {
+        return toBuilder()
+                .labelIds(hasLabels() ? labelIds.stream().distinct().sorted().toList() : null)
+                .labelMode(hasLabels() ? getLabelMode() : null)
+                .search(hasSearch() ? search.trim() : null)
+                .fuzzy(isFuzzySearch())
+                .similarity(isFuzzySearch() ? similarity : null)
+                .build();
+    }
+
+    public boolean hasLabels() {
+        return labelIds != null && !labelIds.isEmpty();
+    }
+
+    public TaskLabelMode getLabelMode() {
+        return labelMode != null ? labelMode : TaskLabelMode.all;
+    }
+
+    public boolean hasDueRange() {
+        return dueFrom != null || dueTo != null;
+    }
+
+    public boolean hasSearch() {
+        return search != null && !search.isBlank();
+    }
+
+    public boolean isFuzzySearch() {
+        return fuzzy && hasSearch();
+    }
+
+    public boolean isEmpty() {
+        return completed == null && priority == null && !hasLabels() && !hasDueRange() && !hasSearch();
+    }
+}
@@ -0,0 +1,13 @@
+package com.happiness.conan.domain.repository;
+
+/**
+ * How the label ids of a task filter are combined.
+ */
+public enum TaskLabelMode {
+    /** Tasks carrying at least one of the labels. */
+    any,
+    /** Tasks carrying every one of the labels. */
+    all,
+    /** Tasks carrying none of the labels. */
+    none
+}
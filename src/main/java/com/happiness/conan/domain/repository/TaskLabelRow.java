@@ -0,0 +1,14 @@
+package com.happiness.conan.domain.repository;
+
+import lombok.Value;
+
+/**
+ * Projection of one task-label association.
+ */
+@Value
+public class TaskLabelRow {
+
+    Long taskId;
+
+    Long labelId;
+}
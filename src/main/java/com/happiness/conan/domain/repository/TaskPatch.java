@@ -0,0 +1,48 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Task;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Field values to set on tasks. A {@code null} field is left unchanged. Equal patches
+ * can be applied to many tasks with a single statement.
+ */
+@Value
+@Builder
+public class TaskPatch {
+
+    String title;
+
+    String description;
+
+    LocalDateTime dueDate;
+
+    Task.Priority priority;
+
+    Boolean completed;
+
+    public boolean isEmpty() {
+        return title == null && description == null && dueDate == null && priority == null && completed == null;
+    }
+
+    public void applyTo(Task task) {
+        if (title != null) {
+            task.setTitle(title);
+        }
+        if (description != null) {
+            task.setDescription(description);
+        }
+        if (dueDate != null) {
+            task.setDueDate(dueDate);
+        }
+        if (priority != null) {
+            task.setPriority(priority);
+        }
+        if (completed != null) {
+            task.setCompleted(completed);
+        }
+    }
+}
@@ -1,29 +1,57 @@
 package com.happiness.conan.domain.repository;
 
 import com.happiness.conan.domain.model.Task;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
-
-    Page<Task> findByIsCompleted(boolean isCompleted, Pageable pageable);
-
-    Page<Task> findByPriority(Task.Priority priority, Pageable pageable);
-
-    @Query("SELECT t FROM Task t JOIN t.labels l WHERE l.id IN :labelIds GROUP BY t HAVING COUNT(DISTINCT l.id) = :labelCount")
-    Page<Task> findByLabelIdsAll(@Param("labelIds") List<Long> labelIds, @Param("labelCount") long labelCount, Pageable pageable);
-
-    @Query("SELECT t FROM Task t WHERE t.dueDate BETWEEN :startDate AND :endDate")
-    Page<Task> findByDueDateBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
-
-    @Query("SELECT t FROM Task t WHERE LOWER(t.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(t.description) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Task> findByTitleOrDescriptionContainingIgnoreCase(@Param("search") String search, Pageable pageable);
-}
\ No newline at end of file
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskRepositoryCustom {
+
+    @Override
+    @EntityGraph(attributePaths = "labels")
+    Optional<Task> findById(Long id);
+
+    // Selecting only the label id leaves the labels table out of the query
+    @Query("SELECT new com.happiness.conan.domain.repository.TaskLabelRow(t.id, l.id) FROM Task t JOIN t.labels l WHERE t.id IN :taskIds")
+    List<TaskLabelRow> findLabelIdsByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    @Query("SELECT MAX(t.updatedAt) FROM Task t")
+    Optional<LocalDateTime> findLastUpdatedAt();
+
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "labels")
+    List<Task> findByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Labels that do not exist or are already on the task are skipped
+    @Modifying
+    @Query(value = "INSERT INTO task_labels (task_id, label_id) SELECT t.id, l.id FROM tasks t CROSS JOIN labels l"
+            + " WHERE t.id IN (:taskIds) AND l.id IN (:labelIds)"
+            + " AND NOT EXISTS (SELECT 1 FROM task_labels tl WHERE tl.task_id = t.id AND tl.label_id = l.id)",
+            nativeQuery = true)
+    int addLabels(@Param("taskIds") Collection<Long> taskIds, @Param("labelIds") Collection<Long> labelIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_labels WHERE task_id IN (:taskIds) AND label_id IN (:labelIds)", nativeQuery = true)
+    int removeLabels(@Param("taskIds") Collection<Long> taskIds, @Param("labelIds") Collection<Long> labelIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_labels WHERE task_id IN (:taskIds)", nativeQuery = true)
+    int removeAllLabels(@Param("taskIds") Collection<Long> taskIds);
+}
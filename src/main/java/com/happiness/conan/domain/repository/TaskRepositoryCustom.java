@@ -0,0 +1,91 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Task;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Task queries that cannot be expressed as derived or annotated repository methods.
+ * Listing queries return {@link TaskRow} projections rather than managed entities.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Reads a page of rows; the count query is skipped when the page itself shows the total.
+     */
+    Page<TaskRow> findPage(Specification<Task> spec, Pageable pageable);
+
+    /**
+     * Keyset pagination: returns up to {@code limit} rows matching the specification
+     * that sort strictly after the cursor position. Rows without a nullable sort key
+     * follow all others in either direction.
+     */
+    List<TaskRow> findAfter(Specification<Task> spec, TaskCursor cursor, int limit);
+
+    /**
+     * Reads a page and its total in a single statement, using {@code COUNT(*) OVER()}.
+     */
+    Page<TaskRow> findPageWithWindowCount(Specification<Task> spec, Pageable pageable);
+
+    /**
+     * Reads a page without counting, fetching one extra row to detect a next page.
+     */
+    Slice<TaskRow> findSlice(Specification<Task> spec, Pageable pageable);
+
+    /**
+     * Streams every row matching the specification from a forward-only cursor, reading
+     * {@code fetchSize} rows per round trip. The stream must be consumed and closed
+     * inside the transaction that opened it.
+     */
+    Stream<TaskRow> streamRows(Specification<Task> spec, Sort sort, int fetchSize);
+
+    /**
+     * Ids of every task matching the specification, in ascending order.
+     */
+    List<Long> findIds(Specification<Task> spec);
+
+    /**
+     * Applies the patch to every task with one of the ids, stamps them with
+     * {@code updatedAt} and bumps their version, in a single statement. Bypasses the persistence context, so
+     * tasks it already holds are stale afterwards. Returns the number of tasks updated.
+     */
+    int updateAll(Collection<Long> ids, TaskPatch patch, LocalDateTime updatedAt);
+
+    /**
+     * Applies the non-empty patch to one task, stamps it with {@code updatedAt}, bumps
+     * its version and reads back its new state in a single statement where the database
+     * allows it, without loading the entity first. Labels of the returned row carry only
+     * their id. Bypasses the persistence context. Empty when there is no task with the
+     * id, or when {@code expectedVersion} is given and the task is at another version.
+     */
+    Optional<TaskRow> updateReturning(Long id, TaskPatch patch, Long expectedVersion, LocalDateTime updatedAt);
+
+    /**
+     * Flips the completion status of one task in the database, so concurrent toggles
+     * never overwrite each other, and reads back its new state like
+     * {@link #updateReturning(Long, TaskPatch, Long, LocalDateTime)}.
+     */
+    Optional<TaskRow> toggleCompletion(Long id, LocalDateTime updatedAt);
+
+    /**
+     * Approximates the number of tasks matching the specification. On PostgreSQL this is
+     * the planner's row estimate, read from the table statistics or from {@code EXPLAIN}
+     * of the filtered query; elsewhere the count stops at {@code cap} rows.
+     */
+    long estimateCount(Specification<Task> spec, long cap);
+
+    /**
+     * Sets the word similarity threshold used by fuzzy search for the rest of the
+     * current transaction. Does nothing on databases without {@code pg_trgm}.
+     */
+    void setSimilarityThreshold(double threshold);
+}
@@ -0,0 +1,491 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    /**
+     * Columns read for a {@link TaskRow}, in constructor order.
+     */
+    private static final String[] ROW_COLUMNS = {
+            "id", "title", "description", "dueDate", "priority", "isCompleted", "createdAt", "updatedAt", "version"
+    };
+
+    /**
+     * Columns read back by a single-task update, in {@link TaskRow} constructor order,
+     * followed by the label id of the joined {@code task_labels} row.
+     */
+    private static final String RETURNED_COLUMNS =
+            "t.id, t.title, t.description, t.due_date, t.priority, t.is_completed, t.created_at, t.updated_at, t.version,"
+                    + " tl.label_id";
+
+    private static final String EXPLAIN = "EXPLAIN (FORMAT JSON) ";
+
+    // The first estimate in the plan is the one of its top node
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TaskRow> findPage(Specification<Task> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+
+        query.multiselect(rowColumns(root)).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        applySpecification(spec, root, query, cb);
+
+        List<TaskRow> rows = toRows(page(entityManager.createQuery(query), pageable, 0).getResultList());
+        return PageableExecutionUtils.getPage(rows, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<TaskRow> findAfter(Specification<Task> spec, TaskCursor cursor, int limit) {
+        if (!cursor.isNullable()) {
+            return findAfter(spec, cursor, false, limit);
+        }
+
+        // Rows with a key come first, then the null block, each read as its own index range.
+        // On PostgreSQL both are index scans of (due_date, id): one bounded by
+        // "due_date >= ?" (or "<=" descending), the other by "due_date IS NULL" in id order.
+        boolean inNullBlock = !cursor.isFirst() && cursor.getLastValue() == null;
+        List<TaskRow> rows = new ArrayList<>(inNullBlock ? List.of() : findAfter(spec, cursor, false, limit));
+        if (rows.size() < limit) {
+            rows.addAll(findAfter(spec, cursor, true, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    /**
+     * One part of a keyset page: the rows with a sort key, or, for a nullable key, the
+     * rows without one.
+     */
+    private List<TaskRow> findAfter(Specification<Task> spec, TaskCursor cursor, boolean nullKeys, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        Path<?> key = root.get(cursor.getSortField());
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filter = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (nullKeys) {
+            predicates.add(cb.isNull(key));
+            if (!cursor.isFirst() && cursor.getLastValue() == null) {
+                predicates.add(idAfter(cb, root, cursor));
+            }
+        } else {
+            if (cursor.isNullable()) {
+                predicates.add(cb.isNotNull(key));
+            }
+            if (!cursor.isFirst()) {
+                predicates.add(keysetPredicate(cb, root, cursor));
+            }
+        }
+
+        query.multiselect(rowColumns(root))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(keysetOrder(cb, root, cursor, nullKeys));
+
+        return toRows(entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList());
+    }
+
+    @Override
+    public Page<TaskRow> findPageWithWindowCount(Specification<Task> spec, Pageable pageable) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+
+        List<Selection<?>> columns = new ArrayList<>(rowColumns(root));
+        columns.add(cb.count(root.get("id"), cb.createWindow()));
+        query.multiselect(columns).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        applySpecification(spec, root, query, cb);
+
+        List<Tuple> tuples = page(entityManager.createQuery(query), pageable, 0).getResultList();
+        if (tuples.isEmpty()) {
+            // Past the last page there is no row to carry the window total
+            long total = pageable.isPaged() && pageable.getOffset() > 0 ? count(spec) : 0;
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+
+        long total = tuples.get(0).get(ROW_COLUMNS.length, Long.class);
+        return new PageImpl<>(toRows(tuples), pageable, total);
+    }
+
+    @Override
+    public Slice<TaskRow> findSlice(Specification<Task> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+
+        query.multiselect(rowColumns(root)).orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        applySpecification(spec, root, query, cb);
+
+        List<TaskRow> rows = toRows(page(entityManager.createQuery(query), pageable, 1).getResultList());
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<TaskRow> streamRows(Specification<Task> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+
+        query.multiselect(rowColumns(root)).orderBy(QueryUtils.toOrders(sort, root, cb));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()
+                .map(TaskRepositoryCustomImpl::toRow);
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Task> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> root = query.from(Task.class);
+
+        query.select(root.get("id")).orderBy(cb.asc(root.get("id")));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public int updateAll(Collection<Long> ids, TaskPatch patch, LocalDateTime updatedAt) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> root = update.from(Task.class);
+
+        if (patch.getTitle() != null) {
+            update.set(root.<String>get("title"), patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            update.set(root.<String>get("description"), patch.getDescription());
+        }
+        if (patch.getDueDate() != null) {
+            update.set(root.<LocalDateTime>get("dueDate"), patch.getDueDate());
+        }
+        if (patch.getPriority() != null) {
+            update.set(root.<Task.Priority>get("priority"), patch.getPriority());
+        }
+        if (patch.getCompleted() != null) {
+            update.set(root.<Boolean>get("isCompleted"), patch.getCompleted());
+        }
+        update.set(root.<LocalDateTime>get("updatedAt"), updatedAt)
+                .set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L))
+                .where(root.get("id").in(ids));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public Optional<TaskRow> updateReturning(Long id, TaskPatch patch, Long expectedVersion, LocalDateTime updatedAt) {
+        StringBuilder assignments = new StringBuilder();
+        Map<String, Object> parameters = new HashMap<>();
+        if (patch.getTitle() != null) {
+            assignments.append("title = :title, ");
+            parameters.put("title", patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            assignments.append("description = :description, ");
+            parameters.put("description", patch.getDescription());
+        }
+        if (patch.getDueDate() != null) {
+            assignments.append("due_date = :dueDate, ");
+            parameters.put("dueDate", patch.getDueDate());
+        }
+        if (patch.getPriority() != null) {
+            assignments.append("priority = :priority, ");
+            parameters.put("priority", patch.getPriority().name());
+        }
+        if (patch.getCompleted() != null) {
+            assignments.append("is_completed = :completed, ");
+            parameters.put("completed", patch.getCompleted());
+        }
+        return updateReturning(id, assignments.toString(), parameters, expectedVersion, updatedAt);
+    }
+
+    @Override
+    public Optional<TaskRow> toggleCompletion(Long id, LocalDateTime updatedAt) {
+        return updateReturning(id, "is_completed = NOT is_completed, ", Map.of(), null, updatedAt);
+    }
+
+    /**
+     * Runs {@code UPDATE tasks SET <assignments> updated_at = :updatedAt, version = version + 1
+     * WHERE id = :id}, also matching the expected version when one is given, and reads
+     * the updated row joined with its label ids. PostgreSQL does both in one
+     * statement with {@code UPDATE ... RETURNING} in a CTE, H2 by selecting from the
+     * {@code FINAL TABLE} of the update; other databases read the row back afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    private Optional<TaskRow> updateReturning(Long id, String assignments, Map<String, Object> parameters,
+            Long expectedVersion, LocalDateTime updatedAt) {
+        String update = "UPDATE tasks SET " + assignments + "updated_at = :updatedAt, version = version + 1"
+                + " WHERE id = :id";
+        if (expectedVersion != null) {
+            update += " AND version = :version";
+            parameters = new HashMap<>(parameters);
+            parameters.put("version", expectedVersion);
+        }
+        String join = " LEFT JOIN task_labels tl ON tl.task_id = t.id";
+        Dialect dialect = dialect();
+
+        String sql;
+        if (dialect instanceof PostgreSQLDialect) {
+            sql = "WITH t AS (" + update + " RETURNING *) SELECT " + RETURNED_COLUMNS + " FROM t" + join;
+        } else if (dialect instanceof H2Dialect) {
+            sql = "SELECT " + RETURNED_COLUMNS + " FROM FINAL TABLE (" + update + ") t" + join;
+        } else {
+            Query statement = entityManager.createNativeQuery(update)
+                    .setParameter("id", id)
+                    .setParameter("updatedAt", updatedAt);
+            parameters.forEach(statement::setParameter);
+            if (statement.executeUpdate() == 0) {
+                return Optional.empty();
+            }
+            sql = "SELECT " + RETURNED_COLUMNS + " FROM tasks t" + join + " WHERE t.id = :id";
+        }
+
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("title", String.class)
+                .addScalar("description", String.class)
+                .addScalar("due_date", LocalDateTime.class)
+                .addScalar("priority", String.class)
+                .addScalar("is_completed", Boolean.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .addScalar("updated_at", LocalDateTime.class)
+                .addScalar("version", Long.class)
+                .addScalar("label_id", Long.class);
+        query.setParameter("id", id).setParameter("updatedAt", updatedAt);
+        parameters.forEach(query::setParameter);
+
+        // One result per label of the task, or a single one with no label id
+        List<Object[]> results = query.getResultList();
+        if (results.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] first = results.get(0);
+        List<Label> labels = results.stream()
+                .map(result -> (Long) result[9])
+                .filter(Objects::nonNull)
+                .sorted()
+                .map(labelId -> Label.builder().id(labelId).build())
+                .toList();
+        return Optional.of(new TaskRow((Long) first[0], (String) first[1], (String) first[2],
+                (LocalDateTime) first[3], Task.Priority.valueOf((String) first[4]), (Boolean) first[5],
+                (LocalDateTime) first[6], (LocalDateTime) first[7], (Long) first[8], labels));
+    }
+
+    @Override
+    public long estimateCount(Specification<Task> spec, long cap) {
+        if (isPostgreSql()) {
+            OptionalLong estimate = spec == null ? tableRows() : plannedRows(spec);
+            if (estimate.isPresent()) {
+                return estimate.getAsLong();
+            }
+        }
+
+        // Without planner statistics, count up to the cap
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(root.get("id"));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(Math.toIntExact(cap))
+                .getResultList()
+                .size();
+    }
+
+    private OptionalLong tableRows() {
+        Number estimate = (Number) entityManager
+                .createNativeQuery("SELECT reltuples FROM pg_class WHERE oid = CAST('tasks' AS regclass)")
+                .getSingleResult();
+        // reltuples is -1 until the table has been analyzed
+        return estimate.longValue() >= 0 ? OptionalLong.of(estimate.longValue()) : OptionalLong.empty();
+    }
+
+    /**
+     * Rows the planner expects the filtered query to return. The query is rendered and
+     * bound as usual, then sent prefixed with {@code EXPLAIN} on the current connection,
+     * so it sees the settings of the current transaction. Nothing is executed.
+     */
+    private OptionalLong plannedRows(Specification<Task> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<String> query = cb.createQuery(String.class);
+        Root<Task> root = query.from(Task.class);
+        // EXPLAIN answers with a single text column, read back in place of the title
+        query.select(root.get("title"));
+        applySpecification(spec, root, query, cb);
+
+        Session session = entityManager.unwrap(Session.class);
+        Connection connection = session.doReturningWork(jdbc -> jdbc);
+        try (Session explaining = session.getSessionFactory()
+                .withOptions()
+                .connection(connection)
+                .statementInspector(sql -> EXPLAIN + sql)
+                .openSession()) {
+            Matcher rows = PLAN_ROWS.matcher(explaining.createQuery(query).getSingleResult());
+            return rows.find() ? OptionalLong.of(Long.parseLong(rows.group(1))) : OptionalLong.empty();
+        }
+    }
+
+    private static List<Selection<?>> rowColumns(Root<Task> root) {
+        return Arrays.stream(ROW_COLUMNS).<Selection<?>>map(root::get).toList();
+    }
+
+    private static List<TaskRow> toRows(List<Tuple> tuples) {
+        return tuples.stream().map(TaskRepositoryCustomImpl::toRow).toList();
+    }
+
+    private static TaskRow toRow(Tuple tuple) {
+        return new TaskRow(
+                tuple.get(0, Long.class),
+                tuple.get(1, String.class),
+                tuple.get(2, String.class),
+                tuple.get(3, LocalDateTime.class),
+                tuple.get(4, Task.Priority.class),
+                tuple.get(5, Boolean.class),
+                tuple.get(6, LocalDateTime.class),
+                tuple.get(7, LocalDateTime.class),
+                tuple.get(8, Long.class),
+                List.of());
+    }
+
+    @Override
+    public void setSimilarityThreshold(double threshold) {
+        if (isPostgreSql()) {
+            entityManager.createNativeQuery("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                    .setParameter("threshold", String.valueOf(threshold))
+                    .getSingleResult();
+        }
+    }
+
+    private long count(Specification<Task> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(cb.count(root));
+        applySpecification(spec, root, query, cb);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applySpecification(Specification<Task> spec, Root<Task> root,
+            CriteriaQuery<?> query, CriteriaBuilder cb) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private static <T> TypedQuery<T> page(TypedQuery<T> query, Pageable pageable, int extraRows) {
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset()));
+            query.setMaxResults(pageable.getPageSize() + extraRows);
+        }
+        return query;
+    }
+
+    private boolean isPostgreSql() {
+        return dialect() instanceof PostgreSQLDialect;
+    }
+
+    private Dialect dialect() {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+
+    // Null keys all compare equal, so only the id orders the null block
+    private List<Order> keysetOrder(CriteriaBuilder cb, Root<Task> root, TaskCursor cursor, boolean nullKeys) {
+        boolean asc = cursor.getDirection() == Sort.Direction.ASC;
+        Path<?> key = root.get(cursor.getSortField());
+        Path<?> id = root.get("id");
+
+        List<Order> orders = new ArrayList<>();
+        if (!nullKeys) {
+            orders.add(asc ? cb.asc(key) : cb.desc(key));
+        }
+        orders.add(asc ? cb.asc(id) : cb.desc(id));
+        return orders;
+    }
+
+    /**
+     * Rows after (key, id): a strictly later key, or the same key with a later id. The
+     * bound on the key alone lets the (key, id) index serve it as a range scan.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate keysetPredicate(CriteriaBuilder cb, Root<Task> root, TaskCursor cursor) {
+        boolean asc = cursor.getDirection() == Sort.Direction.ASC;
+        Path<Comparable> key = root.get(cursor.getSortField());
+        Comparable lastValue = (Comparable) cursor.getLastValue();
+        Predicate keyFrom = asc ? cb.greaterThanOrEqualTo(key, lastValue) : cb.lessThanOrEqualTo(key, lastValue);
+        Predicate keyAfter = asc ? cb.greaterThan(key, lastValue) : cb.lessThan(key, lastValue);
+        return cb.and(keyFrom, cb.or(keyAfter, idAfter(cb, root, cursor)));
+    }
+
+    private static Predicate idAfter(CriteriaBuilder cb, Root<Task> root, TaskCursor cursor) {
+        Path<Long> id = root.get("id");
+        return cursor.getDirection() == Sort.Direction.ASC
+                ? cb.greaterThan(id, cursor.getLastId())
+                : cb.lessThan(id, cursor.getLastId());
+    }
+}
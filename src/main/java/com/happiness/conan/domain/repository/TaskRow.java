@@ -0,0 +1,54 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Read-only projection of a task row. Rows are never attached to the persistence
+ * context, so listing them costs neither entity hydration nor dirty checking.
+ */
+@Value
+@AllArgsConstructor
+public class TaskRow {
+
+    Long id;
+
+    String title;
+
+    String description;
+
+    LocalDateTime dueDate;
+
+    Task.Priority priority;
+
+    boolean completed;
+
+    LocalDateTime createdAt;
+
+    LocalDateTime updatedAt;
+
+    long version;
+
+    @With
+    List<Label> labels;
+
+    /**
+     * Detached copy of a task and its labels, sharing no state with the entity.
+     */
+    public static TaskRow of(Task task) {
+        List<Label> labels = task.getLabels() == null ? List.of() : task.getLabels().stream()
+                .map(label -> Label.builder().id(label.getId()).name(label.getName()).color(label.getColor()).build())
+                .sorted(Comparator.comparing(Label::getId))
+                .toList();
+        return new TaskRow(task.getId(), task.getTitle(), task.getDescription(), task.getDueDate(),
+                task.getPriority(), task.isCompleted(), task.getCreatedAt(), task.getUpdatedAt(), task.getVersion(),
+                labels);
+    }
+}
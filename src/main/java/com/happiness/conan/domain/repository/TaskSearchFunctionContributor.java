@@ -0,0 +1,44 @@
+package com.happiness.conan.domain.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the PostgreSQL search functions used by {@link TaskSpecifications}.
+ * The {@code search_vector} column is maintained by the database and not mapped, so the
+ * full-text functions reach it through the task id. Nothing is registered on other databases.
+ */
+public class TaskSearchFunctionContributor implements FunctionContributor {
+
+    public static final String MATCHES = "task_search_matches";
+
+    public static final String RANK = "task_search_rank";
+
+    public static final String SIMILAR = "task_search_similar";
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        if (!(contributions.getDialect() instanceof PostgreSQLDialect)) {
+            return;
+        }
+
+        SqmFunctionRegistry registry = contributions.getFunctionRegistry();
+        BasicTypeRegistry types = contributions.getTypeConfiguration().getBasicTypeRegistry();
+
+        // Semi-join on the primary key, so the GIN index drives the match
+        registry.registerPattern(MATCHES,
+                "(?1 in (select ts_t.id from tasks ts_t"
+                        + " where ts_t.search_vector @@ websearch_to_tsquery('simple', ?2)))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(RANK,
+                "(select ts_rank(ts_t.search_vector, websearch_to_tsquery('simple', ?2))"
+                        + " from tasks ts_t where ts_t.id = ?1)",
+                types.resolve(StandardBasicTypes.FLOAT));
+        // Word similarity above pg_trgm.word_similarity_threshold, served by the trigram indexes
+        registry.registerPattern(SIMILAR, "(?2 <% ?1)", types.resolve(StandardBasicTypes.BOOLEAN));
+    }
+}
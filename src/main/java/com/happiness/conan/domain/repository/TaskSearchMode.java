@@ -0,0 +1,25 @@
+package com.happiness.conan.domain.repository;
+
+/**
+ * How the task search term is matched against titles and descriptions.
+ */
+public enum TaskSearchMode {
+    /** Case-insensitive {@code LIKE '%term%'}; portable but unindexed. */
+    like,
+    /** PostgreSQL full-text search on the indexed {@code search_vector} column, ranked by relevance. */
+    fulltext,
+    /**
+     * Case-insensitive substring match served by PostgreSQL {@code pg_trgm} indexes, from
+     * the opt-in {@code db/optional/trgm} migrations.
+     */
+    trigram,
+    /** Case-insensitive substring match narrowed down by the in-memory task search index. */
+    index;
+
+    /**
+     * Whether the mode installs {@code pg_trgm}, whose similarity operators fuzzy search needs.
+     */
+    public boolean usesTrigrams() {
+        return this == trigram;
+    }
+}
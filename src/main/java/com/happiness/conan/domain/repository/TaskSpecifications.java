@@ -0,0 +1,180 @@
+package com.happiness.conan.domain.repository;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Composable JPA specifications for querying tasks.
+ */
+public final class TaskSpecifications {
+
+    /**
+     * Pseudo sort property ordering search results by relevance.
+     */
+    public static final String RELEVANCE = "relevance";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> matching(TaskFilter filter) {
+        return matching(filter, TaskSearchMode.like);
+    }
+
+    /**
+     * Combines every predicate present in the filter into a single specification.
+     * Predicates are added from the most to the least selective one, so the
+     * indexed label and due date lookups come first and the search last.
+     */
+    public static Specification<Task> matching(TaskFilter filter, TaskSearchMode searchMode) {
+        Specification<Task> spec = Specification.where(null);
+
+        if (filter.hasLabels()) {
+            spec = spec.and(hasLabels(filter.getLabelIds(), filter.getLabelMode()));
+        }
+        if (filter.hasDueRange()) {
+            spec = spec.and(dueBetween(filter.getDueFrom(), filter.getDueTo()));
+        }
+        if (filter.getPriority() != null) {
+            spec = spec.and(hasPriority(filter.getPriority()));
+        }
+        if (filter.getCompleted() != null) {
+            spec = spec.and(isCompleted(filter.getCompleted()));
+        }
+        if (filter.hasSearch()) {
+            spec = spec.and(searchMatches(filter, searchMode));
+        }
+
+        return spec;
+    }
+
+    /**
+     * Fuzzy search needs the trigram functions, so it degrades to the mode's own match
+     * outside trigram mode.
+     */
+    private static Specification<Task> searchMatches(TaskFilter filter, TaskSearchMode searchMode) {
+        if (filter.isFuzzySearch() && searchMode.usesTrigrams()) {
+            return titleOrDescriptionSimilarTo(filter.getSearch());
+        }
+        if (searchMode == TaskSearchMode.fulltext) {
+            return fullTextMatches(filter.getSearch());
+        }
+        return titleOrDescriptionContains(filter.getSearch());
+    }
+
+    public static Specification<Task> idIn(List<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    public static Specification<Task> isCompleted(boolean completed) {
+        return (root, query, cb) -> cb.equal(root.get("isCompleted"), completed);
+    }
+
+    public static Specification<Task> hasPriority(Task.Priority priority) {
+        return (root, query, cb) -> cb.equal(root.get("priority"), priority);
+    }
+
+    public static Specification<Task> hasLabels(List<Long> labelIds, TaskLabelMode labelMode) {
+        return switch (labelMode) {
+            case any -> hasAnyLabel(labelIds);
+            case none -> Specification.not(hasAnyLabel(labelIds));
+            case all -> hasAllLabels(labelIds);
+        };
+    }
+
+    /**
+     * One {@code EXISTS} semi-join per label, each a single probe of the
+     * {@code task_labels(label_id, task_id)} index.
+     */
+    public static Specification<Task> hasAllLabels(List<Long> labelIds) {
+        return (root, query, cb) -> cb.and(labelIds.stream()
+                .map(labelId -> cb.exists(labelledWith(root, query, cb, List.of(labelId))))
+                .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Task> hasAnyLabel(List<Long> labelIds) {
+        return (root, query, cb) -> cb.exists(labelledWith(root, query, cb, labelIds));
+    }
+
+    private static Subquery<Integer> labelledWith(Root<Task> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+            List<Long> labelIds) {
+        Subquery<Integer> labelled = query.subquery(Integer.class);
+        Root<Task> task = labelled.correlate(root);
+        Join<Task, Label> label = task.join("labels");
+        return labelled.select(cb.literal(1))
+                .where(labelIds.size() == 1
+                        ? cb.equal(label.get("id"), labelIds.get(0))
+                        : label.get("id").in(labelIds));
+    }
+
+    public static Specification<Task> dueBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, cb) -> {
+            if (from != null && to != null) {
+                return cb.between(root.get("dueDate"), from, to);
+            }
+            if (from != null) {
+                return cb.greaterThanOrEqualTo(root.get("dueDate"), from);
+            }
+            return cb.lessThanOrEqualTo(root.get("dueDate"), to);
+        };
+    }
+
+    public static Specification<Task> titleOrDescriptionContains(String search) {
+        return (root, query, cb) -> {
+            String pattern = "%" + escapeLike(search.toLowerCase(Locale.ROOT)) + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("title")), pattern, LIKE_ESCAPE),
+                    cb.like(cb.lower(root.get("description")), pattern, LIKE_ESCAPE));
+        };
+    }
+
+    // The search term is matched literally, wildcards included
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    public static Specification<Task> titleOrDescriptionSimilarTo(String search) {
+        return (root, query, cb) -> {
+            String term = search.toLowerCase(Locale.ROOT);
+            return cb.or(
+                    cb.isTrue(cb.function(TaskSearchFunctionContributor.SIMILAR, Boolean.class,
+                            cb.lower(root.get("title")), cb.literal(term))),
+                    cb.isTrue(cb.function(TaskSearchFunctionContributor.SIMILAR, Boolean.class,
+                            cb.lower(root.get("description")), cb.literal(term))));
+        };
+    }
+
+    public static Specification<Task> fullTextMatches(String search) {
+        return (root, query, cb) -> cb.isTrue(cb.function(TaskSearchFunctionContributor.MATCHES, Boolean.class,
+                root.get("id"), cb.literal(search)));
+    }
+
+    /**
+     * Orders rows by full-text rank, ties broken by id. Adds no predicate, and leaves
+     * count queries unordered.
+     */
+    public static Specification<Task> orderedByRelevance(String search, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                Expression<Float> rank = cb.function(TaskSearchFunctionContributor.RANK, Float.class,
+                        root.get("id"), cb.literal(search));
+                query.orderBy(direction.isAscending() ? cb.asc(rank) : cb.desc(rank), cb.desc(root.get("id")));
+            }
+            return null;
+        };
+    }
+}
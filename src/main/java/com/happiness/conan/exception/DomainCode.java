@@ -22,6 +22,8 @@ public enum DomainCode {
     USER_ALREADY_EXISTS(409, "error.business.user.exists"),
     INSUFFICIENT_PERMISSIONS(403, "error.business.insufficient.permissions"),
     INVALID_OPERATION(400, "error.business.invalid.operation"),
+    CONCURRENT_MODIFICATION(409, "error.business.concurrent.modification"),
+    PRECONDITION_FAILED(412, "error.business.precondition.failed"),
     BUSINESS_RULE_VIOLATION(422, "error.business.rule.violation");
 
     private final int code;
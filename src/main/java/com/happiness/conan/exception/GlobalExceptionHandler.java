@@ -8,6 +8,7 @@ import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -36,6 +37,27 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(TaskVersionMismatchException.class)
+    public ResponseEntity<BaseResponse<String>> handleVersionMismatch(TaskVersionMismatchException ex) {
+        return failure(DomainCode.PRECONDITION_FAILED, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    // A concurrent write committed first; the client should re-read and retry
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<BaseResponse<String>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return failure(DomainCode.CONCURRENT_MODIFICATION, HttpStatus.CONFLICT);
+    }
+
+    private ResponseEntity<BaseResponse<String>> failure(DomainCode domainCode, HttpStatus status) {
+        String localizedMessage = messageSource.getMessage(
+                domainCode.getMessage(),
+                null,
+                domainCode.getMessage(),
+                LocaleContextHolder.getLocale());
+        return new ResponseEntity<>(BaseResponse.fail(domainCode.getCode(), localizedMessage), status);
+    }
+
     // Catch any other unhandled exceptions
     @ExceptionHandler(Exception.class)
     public ResponseEntity<BaseResponse<Object>> handleAllOthers(Exception ex) {
@@ -0,0 +1,10 @@
+package com.happiness.conan.exception;
+
+/**
+ * Thrown when a conditional update names a task version other than the current one.
+ */
+public class TaskVersionMismatchException extends BizException {
+    public TaskVersionMismatchException() {
+        super(DomainCode.PRECONDITION_FAILED);
+    }
+}
@@ -0,0 +1,132 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.repository.LabelRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Copy-on-write snapshot of the label table. Readers see one immutable map; a refresh
+ * loads the whole table and swaps the map in at once, unless a refresh started later
+ * has swapped in its own already. The snapshot is loaded when the application starts,
+ * reloaded once a transaction changing labels has committed, and reloaded every
+ * {@code conan.label-catalog.refresh-interval} for changes made elsewhere.
+ * <p>
+ * Labels handed out are fresh detached copies, so callers may attach them to a task,
+ * whose label association only needs their ids.
+ */
+@Component
+@RequiredArgsConstructor
+public class LabelCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(LabelCatalog.class);
+
+    private final LabelRepository labelRepository;
+
+    private final AtomicLong refreshes = new AtomicLong();
+
+    private final AtomicReference<Snapshot> labels = new AtomicReference<>(new Snapshot(0, Map.of()));
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "#{@labelCatalogProperties.refreshInterval}",
+            initialDelayString = "#{@labelCatalogProperties.refreshInterval}")
+    public void refresh() {
+        long refresh = refreshes.incrementAndGet();
+        Map<Long, Label> loaded = labelRepository.findAll().stream()
+                .map(LabelCatalog::copy)
+                .collect(Collectors.toUnmodifiableMap(Label::getId, Function.identity()));
+        // A slower refresh started earlier must not replace a newer snapshot
+        labels.accumulateAndGet(new Snapshot(refresh, loaded),
+                (current, next) -> next.refresh > current.refresh ? next : current);
+        log.debug("Label catalog loaded: {} labels", loaded.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLabelChanged(LabelChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Every label of the snapshot.
+     */
+    public List<Label> all() {
+        return labels.get().labels.values().stream().map(LabelCatalog::copy).toList();
+    }
+
+    /**
+     * Labels with the given ids, each listed once. Ids missing from the
+     * snapshot, such as labels created by another instance or earlier in the current
+     * transaction, are looked up in the database; ids of no label are skipped.
+     */
+    public List<Label> resolve(Collection<Long> labelIds) {
+        Map<Long, Label> snapshot = labels.get().labels;
+        Set<Long> ids = labelIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        List<Label> resolved = new ArrayList<>(ids.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Label label = snapshot.get(id);
+            if (label != null) {
+                resolved.add(copy(label));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // Not added to the snapshot, the current transaction may still roll back
+            labelRepository.findAllById(missing).forEach(label -> resolved.add(copy(label)));
+        }
+        return resolved;
+    }
+
+    /**
+     * Like {@link #resolve}, for labels about to be associated with a task: ids of labels
+     * no longer in the database, such as labels deleted by another instance and still in
+     * the snapshot, are skipped too, and the snapshot is reloaded.
+     */
+    public List<Label> resolveExisting(Collection<Long> labelIds) {
+        List<Label> resolved = resolve(labelIds);
+        if (resolved.isEmpty()) {
+            return resolved;
+        }
+        Set<Long> existing = labelRepository.findExistingIds(resolved.stream().map(Label::getId).toList());
+        if (existing.size() == resolved.size()) {
+            return resolved;
+        }
+        refresh();
+        return resolved.stream().filter(label -> existing.contains(label.getId())).toList();
+    }
+
+    private static Label copy(Label label) {
+        return Label.builder()
+                .id(label.getId())
+                .name(label.getName())
+                .color(label.getColor())
+                .build();
+    }
+
+    private record Snapshot(long refresh, Map<Long, Label> labels) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskBatchProperties;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.web.dto.BatchUpdateRequestDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+/**
+ * Applies large batch updates as id-range partitions, concurrently and each in its own
+ * transaction, on a pool of threads shared by all requests. Each partition runs as an
+ * atomic {@link TaskService#batchUpdateTasks batch update}, so a batch is no longer
+ * applied as a whole: partitions that committed stay applied when another fails, and
+ * readers may see some partitions applied before the others.
+ * <p>
+ * The items of a partition whose transaction failed are reported as
+ * {@link TaskBatchResult.Status#failed failed}; items of one task always share a
+ * partition, so duplicates are still reported as such.
+ */
+@Component
+public class TaskBatchPartitioner {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBatchPartitioner.class);
+
+    private final TaskService taskService;
+    private final TaskBatchProperties properties;
+    private final Executor executor;
+
+    @Autowired
+    public TaskBatchPartitioner(TaskService taskService, TaskBatchProperties properties) {
+        this(taskService, properties, Executors.newFixedThreadPool(properties.getThreads(),
+                new CustomizableThreadFactory("task-batch-")));
+    }
+
+    TaskBatchPartitioner(TaskService taskService, TaskBatchProperties properties, Executor executor) {
+        this.taskService = taskService;
+        this.properties = properties;
+        this.executor = executor;
+    }
+
+    /**
+     * Applies the batch a partition at a time and merges the outcomes, in request order.
+     */
+    public TaskBatchResult batchUpdateTasks(BatchUpdateRequestDTO batchUpdateRequestDTO) {
+        List<BatchUpdateRequestDTO.TaskBatchUpdateDTO> items = batchUpdateRequestDTO.getUpdates() != null
+                ? batchUpdateRequestDTO.getUpdates()
+                : List.of();
+        if (items.size() <= properties.getPartitionSize()) {
+            return taskService.batchUpdateTasks(batchUpdateRequestDTO);
+        }
+
+        List<List<Integer>> partitions = partitions(items);
+        List<CompletableFuture<TaskBatchResult>> results = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> taskService.batchUpdateTasks(
+                        new BatchUpdateRequestDTO(partition.stream().map(items::get).toList())), executor))
+                .toList();
+
+        TaskBatchResult.Item[] outcomes = new TaskBatchResult.Item[items.size()];
+        Map<Long, Task> updated = new HashMap<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            List<Integer> partition = partitions.get(i);
+            try {
+                TaskBatchResult result = results.get(i).join();
+                for (int j = 0; j < partition.size(); j++) {
+                    outcomes[partition.get(j)] = result.getItems().get(j);
+                }
+                result.getUpdated().forEach(task -> updated.put(task.getId(), task));
+            } catch (CompletionException e) {
+                log.warn("Batch partition of {} items rolled back", partition.size(), e.getCause());
+                partition.forEach(index -> outcomes[index] = new TaskBatchResult.Item(items.get(index).getId(),
+                        TaskBatchResult.Status.failed, "Not applied, its partition was rolled back"));
+            }
+        }
+
+        List<Task> updatedInOrder = Arrays.stream(outcomes)
+                .filter(item -> item.getStatus() == TaskBatchResult.Status.updated)
+                .map(item -> updated.get(item.getId()))
+                .toList();
+        return new TaskBatchResult(updatedInOrder, List.of(outcomes));
+    }
+
+    /**
+     * Splits the item indexes into runs of consecutive task ids, items without an id
+     * first. A run is cut only between two ids, so items of one task stay together.
+     */
+    private List<List<Integer>> partitions(List<BatchUpdateRequestDTO.TaskBatchUpdateDTO> items) {
+        // Stable, so items of one task keep their request order
+        List<Integer> byId = IntStream.range(0, items.size())
+                .boxed()
+                .sorted(Comparator.comparing(index -> items.get(index).getId(),
+                        Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+
+        List<List<Integer>> partitions = new ArrayList<>();
+        List<Integer> partition = new ArrayList<>();
+        for (Integer index : byId) {
+            Long id = items.get(index).getId();
+            if (partition.size() >= properties.getPartitionSize()
+                    && (id == null || !id.equals(items.get(partition.get(partition.size() - 1)).getId()))) {
+                partitions.add(partition);
+                partition = new ArrayList<>();
+            }
+            partition.add(index);
+        }
+        partitions.add(partition);
+        return partitions;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+}
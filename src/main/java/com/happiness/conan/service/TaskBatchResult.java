@@ -0,0 +1,43 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.model.Task;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch update: the updated tasks, and the status of every item of the
+ * batch, both in request order.
+ */
+@Value
+public class TaskBatchResult {
+
+    List<Task> updated;
+
+    List<Item> items;
+
+    /**
+     * Status of one batch item. Constants are lowercase since they are rendered as is.
+     */
+    public enum Status {
+        updated,
+        not_found,
+        invalid,
+        conflict,
+        /** Rolled back with the rest of its partition, in a partitioned batch. */
+        failed
+    }
+
+    @Value
+    public static class Item {
+
+        Long id;
+
+        Status status;
+
+        /**
+         * Why the item was not applied; {@code null} for an updated task.
+         */
+        String message;
+    }
+}
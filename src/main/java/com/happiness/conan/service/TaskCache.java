@@ -0,0 +1,77 @@
+package com.happiness.conan.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.happiness.conan.config.TaskCacheProperties;
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.repository.TaskRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of task snapshots keyed by task id. Snapshots are
+ * immutable {@link TaskRow}s, so cached entries are never attached to a persistence
+ * context nor changed by their readers.
+ * <p>
+ * An entry is invalidated once the transaction changing its task has committed, and
+ * every entry once a label change has.
+ * Caffeine makes the invalidation wait for a load of the same id in progress, so a
+ * snapshot read before the commit cannot outlive it. Hit, miss and eviction counts
+ * are published as the {@code cache.*} meters tagged {@code cache=tasks}.
+ */
+@Component
+public class TaskCache implements MeterBinder {
+
+    static final String NAME = "tasks";
+
+    private final Cache<Long, TaskRow> snapshots;
+
+    public TaskCache(TaskCacheProperties properties) {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Snapshot of the task, loaded on a miss. Loader exceptions propagate and cache nothing.
+     */
+    public TaskRow get(Long taskId, Function<Long, TaskRow> loader) {
+        return snapshots.get(taskId, loader);
+    }
+
+    public void invalidate(Long taskId) {
+        snapshots.invalidate(taskId);
+    }
+
+    public CacheStats stats() {
+        return snapshots.stats();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        invalidate(event.getTaskId());
+    }
+
+    /**
+     * Snapshots carry label names and colors, and a label may be on any task.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLabelChanged(LabelChangedEvent event) {
+        snapshots.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, NAME);
+    }
+}
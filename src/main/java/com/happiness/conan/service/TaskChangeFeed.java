@@ -0,0 +1,237 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskChangeFeedProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams committed task changes to server-sent event subscribers. Each event names
+ * the change ({@code created}, {@code updated}, {@code toggled} or {@code deleted}) and
+ * carries the task id; clients fetch the task itself when they need it.
+ * <p>
+ * Every subscriber has its own bounded buffer. A task changing again before its
+ * previous change was sent keeps a single entry holding the latest change. A subscriber
+ * whose buffer overflows loses its buffered changes and gets a {@code resync} event,
+ * telling it to list the tasks again. Publishers only buffer; events are written by a
+ * small shared pool of sender threads.
+ * <p>
+ * A write to a slow client blocks its sender thread. Once a write has blocked longer
+ * than the send timeout, the subscriber is dropped and the pool gets an extra thread
+ * until the write returns, so the other subscribers keep being served. The client
+ * reconnects and lists the tasks again.
+ */
+@Component
+public class TaskChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskChangeFeed.class);
+
+    static final String RESYNC = "resync";
+
+    // Values of Subscriber.sendStarted besides a System.nanoTime() timestamp
+    private static final long IDLE = 0;
+    private static final long STALLED = Long.MIN_VALUE;
+
+    private final TaskChangeFeedProperties properties;
+    private final Executor sender;
+    private final ScheduledExecutorService watchdog;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public TaskChangeFeed(TaskChangeFeedProperties properties) {
+        this(properties, Executors.newFixedThreadPool(properties.getSenderThreads(),
+                new CustomizableThreadFactory("task-feed-")));
+        long period = Math.max(1, properties.getSendTimeout().toMillis());
+        watchdog.scheduleAtFixedRate(this::dropStalledSubscribers, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    TaskChangeFeed(TaskChangeFeedProperties properties, Executor sender) {
+        this.properties = properties;
+        this.sender = sender;
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("task-feed-watchdog-"));
+    }
+
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(properties.getTimeout().toMillis()));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Drops the subscribers whose event write has blocked longer than the send timeout.
+     * Their emitters are left alone, since the blocked write holds them; the sender
+     * completes them once the write returns.
+     */
+    void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        long timeout = properties.getSendTimeout().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted.get();
+            if (started != IDLE && started != STALLED && now - started > timeout
+                    && subscriber.sendStarted.compareAndSet(started, STALLED)) {
+                log.debug("Dropping task feed subscriber: send blocked for more than {}",
+                        properties.getSendTimeout());
+                subscribers.remove(subscriber);
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private synchronized void resizeSenders(int delta) {
+        if (sender instanceof ThreadPoolExecutor pool) {
+            // The core size never exceeds the maximum
+            if (delta > 0) {
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+            } else {
+                pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+                pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        watchdog.shutdownNow();
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // When the write in progress started, IDLE between writes, STALLED once dropped for it
+        private final AtomicLong sendStarted = new AtomicLong(IDLE);
+
+        // Guarded by this; insertion order is delivery order
+        private final Map<Long, TaskChangedEvent.Type> pending = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean scheduled;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(TaskChangedEvent event) {
+            synchronized (this) {
+                if (!pending.containsKey(event.getTaskId()) && pending.size() >= properties.getBufferSize()) {
+                    pending.clear();
+                    resync = true;
+                } else if (!resync) {
+                    pending.put(event.getTaskId(), event.getType());
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                List<SseEmitter.SseEventBuilder> events = new ArrayList<>();
+                synchronized (this) {
+                    if (resync) {
+                        // Changes after the overflow are covered by the resync
+                        events.add(SseEmitter.event().name(RESYNC).data(""));
+                        resync = false;
+                    } else {
+                        pending.forEach((taskId, type) -> events.add(event(taskId, type)));
+                        pending.clear();
+                    }
+                    if (events.isEmpty()) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                for (SseEmitter.SseEventBuilder event : events) {
+                    if (!send(event)) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes one event; false once the subscriber is dropped, because the write
+         * failed or blocked past the send timeout.
+         */
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            long started = System.nanoTime();
+            sendStarted.set(started);
+            Exception failure = null;
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                failure = e;
+            }
+
+            if (!sendStarted.compareAndSet(started, IDLE)) {
+                // Dropped by the watchdog meanwhile, which stood in a thread for this one
+                resizeSenders(-1);
+                emitter.completeWithError(new IOException("Task feed send timed out"));
+                return false;
+            }
+            if (failure != null) {
+                log.debug("Dropping task feed subscriber: {}", failure.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(failure);
+                return false;
+            }
+            return true;
+        }
+
+        private SseEmitter.SseEventBuilder event(Long taskId, TaskChangedEvent.Type type) {
+            return SseEmitter.event()
+                    .name(type.name().toLowerCase(Locale.ROOT))
+                    .data(Map.of("taskId", taskId), MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskChangesProperties;
+import com.happiness.conan.domain.repository.TaskDeletionRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Forgets deleted tasks once they are past the changes feed retention. Clients syncing
+ * from before it get a full sync instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskDeletionPruner {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskDeletionPruner.class);
+
+    private final TaskDeletionRepository taskDeletionRepository;
+
+    private final TaskChangesProperties properties;
+
+    @Scheduled(fixedDelayString = "#{@taskChangesProperties.pruneInterval}")
+    @Transactional
+    public void prune() {
+        int pruned = taskDeletionRepository.deleteAllDeletedBefore(LocalDateTime.now().minus(properties.getRetention()));
+        if (pruned > 0) {
+            log.info("Pruned {} task deletions past the retention", pruned);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.web.dto.TaskCreateDTO;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * One record of an import file: the task it describes, or why it could not be read.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TaskImportLine {
+
+    /**
+     * Line of the file the record starts on, counting from 1.
+     */
+    long lineNumber;
+
+    TaskCreateDTO task;
+
+    String error;
+
+    public static TaskImportLine of(long lineNumber, TaskCreateDTO task) {
+        return new TaskImportLine(lineNumber, task, null);
+    }
+
+    public static TaskImportLine failed(long lineNumber, String error) {
+        return new TaskImportLine(lineNumber, null, error);
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.happiness.conan.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of an import. Lines are imported or rejected independently of each other.
+ */
+@Value
+public class TaskImportResult {
+
+    int imported;
+
+    int failed;
+
+    /**
+     * Why lines were rejected, in line order; capped, so possibly fewer than {@link #failed}.
+     */
+    List<LineError> errors;
+
+    @Value
+    public static class LineError {
+
+        long lineNumber;
+
+        String message;
+    }
+}
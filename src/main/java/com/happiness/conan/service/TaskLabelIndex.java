@@ -0,0 +1,286 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskLabelIndexProperties;
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskLabelRow;
+import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory compressed bitmap of task ids per label, plus one of every task id.
+ * Label filters become bitmap intersections, unions and differences whose result
+ * is handed to the database as candidate ids, which the SQL label predicate then
+ * narrows down. Bitmaps hold 64-bit ids.
+ * <p>
+ * The index is built when the application starts and kept current by
+ * {@link TaskChangedEvent}s once their transaction has committed, and by
+ * {@link LabelChangedEvent}s for deleted labels. It is not consulted inside a
+ * transaction that changed tasks, since those changes are not in it yet. Writes made
+ * through another instance never reach it.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskLabelIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskLabelIndex.class);
+
+    private static final int BUILD_CHUNK_SIZE = 1_000;
+
+    private final TaskRepository taskRepository;
+    private final TaskLabelIndexProperties properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Roaring64NavigableMap> tasksByLabel = new HashMap<>();
+    private final Roaring64NavigableMap allTasks = new Roaring64NavigableMap();
+
+    // Tasks changed by events while a build runs; their rows read by the build are stale
+    private Set<Long> changedDuringBuild;
+    private boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            tasksByLabel.clear();
+            allTasks.clear();
+            changedDuringBuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TaskCursor cursor = TaskCursor.first("createdAt", Sort.Direction.ASC);
+        List<TaskRow> rows = taskRepository.findAfter(null, cursor, BUILD_CHUNK_SIZE);
+        while (!rows.isEmpty()) {
+            List<TaskLabelRow> labelRows = taskRepository.findLabelIdsByTaskIdIn(
+                    rows.stream().map(TaskRow::getId).toList());
+            lock.writeLock().lock();
+            try {
+                for (TaskRow row : rows) {
+                    if (!changedDuringBuild.contains(row.getId())) {
+                        allTasks.addLong(row.getId());
+                    }
+                }
+                for (TaskLabelRow labelRow : labelRows) {
+                    if (!changedDuringBuild.contains(labelRow.getTaskId())) {
+                        label(labelRow.getLabelId()).addLong(labelRow.getTaskId());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            cursor = cursor.after(rows.get(rows.size() - 1));
+            rows = taskRepository.findAfter(null, cursor, BUILD_CHUNK_SIZE);
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            tasksByLabel.values().forEach(Roaring64NavigableMap::runOptimize);
+            allTasks.runOptimize();
+            ready = true;
+            log.info("Task label index built: {} tasks, {} labels", allTasks.getLongCardinality(),
+                    tasksByLabel.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long taskId = event.getTaskId();
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getTaskId());
+            }
+            // Labels are few, clearing the task from each of them is cheap
+            tasksByLabel.values().forEach(tasks -> tasks.removeLong(taskId));
+            tasksByLabel.values().removeIf(Roaring64NavigableMap::isEmpty);
+            if (event.isDeleted()) {
+                allTasks.removeLong(taskId);
+            } else {
+                allTasks.addLong(taskId);
+                event.getLabelIds().forEach(labelId -> label(labelId).addLong(taskId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the publishing transaction as holding task changes the index has not seen,
+     * until it completes.
+     */
+    @EventListener
+    public void onTaskChangePending(TaskChangedEvent event) {
+        if (!properties.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TaskLabelIndex.this);
+            }
+        });
+    }
+
+    /**
+     * The tasks of a deleted label are no longer labelled with it. Other label changes
+     * leave the index as is.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLabelChanged(LabelChangedEvent event) {
+        if (!properties.isEnabled() || !event.isDeleted()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            tasksByLabel.remove(event.getLabelId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the tasks carrying every one of the labels.
+     */
+    public Optional<List<Long>> findWithAllLabels(Collection<Long> labelIds) {
+        if (hasPendingChanges()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            Roaring64NavigableMap tasks = null;
+            for (Long labelId : labelIds) {
+                Roaring64NavigableMap labelled = tasksByLabel.get(labelId);
+                if (labelled == null) {
+                    return Optional.of(List.of());
+                }
+                if (tasks == null) {
+                    tasks = copy(labelled);
+                } else {
+                    tasks.and(labelled);
+                }
+            }
+            return candidates(tasks == null ? new Roaring64NavigableMap() : tasks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the tasks carrying at least one of the labels.
+     */
+    public Optional<List<Long>> findWithAnyLabel(Collection<Long> labelIds) {
+        if (hasPendingChanges()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            return ready ? candidates(union(labelIds)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the tasks carrying none of the labels.
+     */
+    public Optional<List<Long>> findWithNoLabel(Collection<Long> labelIds) {
+        if (hasPendingChanges()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            Roaring64NavigableMap tasks = copy(allTasks);
+            tasks.andNot(union(labelIds));
+            return candidates(tasks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    private boolean hasPendingChanges() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    private Roaring64NavigableMap union(Collection<Long> labelIds) {
+        Roaring64NavigableMap tasks = new Roaring64NavigableMap();
+        labelIds.stream()
+                .map(tasksByLabel::get)
+                .filter(Objects::nonNull)
+                .forEach(tasks::or);
+        return tasks;
+    }
+
+    private static Roaring64NavigableMap copy(Roaring64NavigableMap tasks) {
+        Roaring64NavigableMap copy = new Roaring64NavigableMap();
+        copy.or(tasks);
+        return copy;
+    }
+
+    /**
+     * Empty when the result is too large to be worth an id list.
+     */
+    private Optional<List<Long>> candidates(Roaring64NavigableMap tasks) {
+        long cardinality = tasks.getLongCardinality();
+        if (cardinality > properties.getMaxCandidates()) {
+            return Optional.empty();
+        }
+        List<Long> ids = new ArrayList<>((int) cardinality);
+        tasks.forEach(ids::add);
+        return Optional.of(ids);
+    }
+
+    private Roaring64NavigableMap label(Long labelId) {
+        return tasksByLabel.computeIfAbsent(labelId, key -> new Roaring64NavigableMap());
+    }
+}
@@ -0,0 +1,133 @@
+package com.happiness.conan.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.happiness.conan.config.TaskPageCacheProperties;
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of task list pages, keyed by the normalized filter, page request and count
+ * mode. A page holds the listed ids and the total, never the rows themselves.
+ * <p>
+ * Pages are stamped with a global version, which every committed task or label change
+ * increments; a page stamped with an older version is never served. Callers read the
+ * version before querying, so a page listed while a write commits carries the old
+ * version and is dropped on its next read. Hit, miss and eviction counts are published
+ * as the {@code cache.*} meters tagged {@code cache=taskPages}.
+ */
+@Component
+public class TaskPageCache implements MeterBinder {
+
+    static final String NAME = "taskPages";
+
+    private final boolean enabled;
+
+    private final Cache<Key, CachedPage> pages;
+
+    // Starts from the clock, so versions from before a restart are not handed out again
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public TaskPageCache(TaskPageCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    public static Key key(TaskFilter filter, Pageable pageable, TaskCountMode countMode) {
+        return new Key(filter.normalized(), pageable, countMode);
+    }
+
+    /**
+     * Current version; read it before listing the page to be cached.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * The cached page, unless it is missing or outdated.
+     */
+    public Optional<CachedPage> get(Key key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedPage page = pages.getIfPresent(key);
+        if (page == null) {
+            return Optional.empty();
+        }
+        if (page.version != version.get()) {
+            pages.invalidate(key);
+            return Optional.empty();
+        }
+        return Optional.of(page);
+    }
+
+    public void put(Key key, long version, Slice<TaskRow> rows) {
+        if (!enabled) {
+            return;
+        }
+        Long total = rows instanceof Page<TaskRow> page ? page.getTotalElements() : null;
+        pages.put(key, new CachedPage(rows.map(TaskRow::getId).getContent(), total, rows.hasNext(), version));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onLabelChanged(LabelChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, pages, NAME);
+    }
+
+    @Value
+    public static class Key {
+
+        TaskFilter filter;
+
+        Pageable pageable;
+
+        TaskCountMode countMode;
+    }
+
+    @Value
+    public static class CachedPage {
+
+        List<Long> ids;
+
+        /**
+         * Total number of matching tasks; {@code null} when the page was listed as a slice.
+         */
+        Long total;
+
+        boolean hasNext;
+
+        long version;
+    }
+}
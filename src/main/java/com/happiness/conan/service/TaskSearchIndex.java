@@ -0,0 +1,329 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskSearchProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over task titles and descriptions, backing the
+ * {@code index} search mode. Each term maps to a sorted posting list of task ids.
+ * A search token matches every term containing it, found as the terms with a suffix
+ * starting with the token (or, for the rare terms longer than
+ * {@value #MAX_SUFFIXED_TERM_LENGTH} characters, such as encoded blobs, by scanning
+ * them), so the candidates are a superset of the tasks whose text
+ * contains the search term; the database narrows them down with its own LIKE, over
+ * those ids only.
+ * <p>
+ * The index is built when the application starts and kept current by
+ * {@link TaskChangedEvent}s once their transaction has committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int BUILD_CHUNK_SIZE = 1_000;
+    // A term adds one suffix per character, each as long as the rest of the term
+    static final int MAX_SUFFIXED_TERM_LENGTH = 64;
+
+    private final TaskRepository taskRepository;
+    private final TaskSearchProperties searchProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> termsByTask = new HashMap<>();
+    // Every suffix of every term, sorted, so the terms containing a token are one range
+    private final NavigableMap<String, Set<String>> termsBySuffix = new TreeMap<>();
+    // Terms too long to store every suffix of
+    private final Set<String> longTerms = new HashSet<>();
+
+    // Tasks changed by events while a build runs; their rows read by the build are stale
+    private Set<Long> changedDuringBuild;
+    private boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByTask.clear();
+            termsBySuffix.clear();
+            longTerms.clear();
+            changedDuringBuild = new HashSet<>();
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TaskCursor cursor = TaskCursor.first("createdAt", Sort.Direction.ASC);
+        List<TaskRow> rows = taskRepository.findAfter(null, cursor, BUILD_CHUNK_SIZE);
+        while (!rows.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                for (TaskRow row : rows) {
+                    if (!changedDuringBuild.contains(row.getId())) {
+                        index(row.getId(), row.getTitle(), row.getDescription());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            cursor = cursor.after(rows.get(rows.size() - 1));
+            rows = taskRepository.findAfter(null, cursor, BUILD_CHUNK_SIZE);
+        }
+
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            ready = true;
+            log.info("Task search index built: {} tasks, {} terms", termsByTask.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.getTaskId());
+            }
+            unindex(event.getTaskId());
+            if (!event.isDeleted()) {
+                index(event.getTaskId(), event.getTitle(), event.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the tasks that may contain the search term, in ascending order. Empty when
+     * the index cannot answer: it is disabled or still building, the term has no letter
+     * or digit, or there are more candidates than the configured maximum.
+     */
+    public Optional<List<Long>> findCandidates(String search) {
+        String[] tokens = tokenize(search);
+        if (tokens.length == 0) {
+            return Optional.empty();
+        }
+
+        long[] candidates = null;
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            for (String token : tokens) {
+                long[] matches = union(token);
+                candidates = candidates == null ? matches : intersect(candidates, matches);
+                if (candidates.length == 0) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (candidates.length > searchProperties.getIndexMaxCandidates()) {
+            return Optional.empty();
+        }
+        return Optional.of(Arrays.stream(candidates).boxed().toList());
+    }
+
+    /**
+     * Number of distinct suffixes stored, for tests.
+     */
+    int suffixCount() {
+        lock.readLock().lock();
+        try {
+            return termsBySuffix.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return searchProperties.getMode() == TaskSearchMode.index;
+    }
+
+    private void index(Long taskId, String title, String description) {
+        String[] terms = tokenize(title + " " + (description == null ? "" : description));
+        termsByTask.put(taskId, terms);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, this::newPostingList).add(taskId);
+        }
+    }
+
+    private void unindex(Long taskId) {
+        String[] terms = termsByTask.remove(taskId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(taskId) && list.size == 0) {
+                postings.remove(term);
+                if (term.length() > MAX_SUFFIXED_TERM_LENGTH) {
+                    longTerms.remove(term);
+                    continue;
+                }
+                for (int start = 0; start < term.length(); start++) {
+                    String suffix = term.substring(start);
+                    Set<String> suffixTerms = termsBySuffix.get(suffix);
+                    suffixTerms.remove(term);
+                    if (suffixTerms.isEmpty()) {
+                        termsBySuffix.remove(suffix);
+                    }
+                }
+            }
+        }
+    }
+
+    private PostingList newPostingList(String term) {
+        if (term.length() > MAX_SUFFIXED_TERM_LENGTH) {
+            longTerms.add(term);
+            return new PostingList();
+        }
+        for (int start = 0; start < term.length(); start++) {
+            termsBySuffix.computeIfAbsent(term.substring(start), key -> new HashSet<>()).add(term);
+        }
+        return new PostingList();
+    }
+
+    /**
+     * Ids posted under any term containing the token, read from the range of suffixes
+     * starting with it rather than by scanning the whole term dictionary; only the long
+     * terms are scanned.
+     */
+    private long[] union(String token) {
+        Set<String> terms = new HashSet<>();
+        termsBySuffix.subMap(token, true, token + Character.MAX_VALUE, false).values().forEach(terms::addAll);
+        for (String term : longTerms) {
+            if (term.contains(token)) {
+                terms.add(term);
+            }
+        }
+
+        long[] merged = new long[0];
+        int size = 0;
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (size + list.size > merged.length) {
+                merged = Arrays.copyOf(merged, Math.max(size + list.size, merged.length * 2));
+            }
+            System.arraycopy(list.ids, 0, merged, size, list.size);
+            size += list.size;
+        }
+        return Arrays.stream(merged, 0, size).sorted().distinct().toArray();
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return TOKEN_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Sorted, duplicate-free task ids. Ids are mostly appended, since new tasks get
+     * increasing ids.
+     */
+    private static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+    }
+}
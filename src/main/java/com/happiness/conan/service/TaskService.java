@@ -1,14 +1,24 @@
 package com.happiness.conan.service;
 
 import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
 import com.happiness.conan.web.dto.BatchUpdateRequestDTO;
+import com.happiness.conan.web.dto.BulkUpdateRequestDTO;
 import com.happiness.conan.web.dto.TaskCreateDTO;
 import com.happiness.conan.web.dto.TaskUpdateDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 public interface TaskService {
 
@@ -16,15 +26,100 @@ public interface TaskService {
             LocalDate startDate, LocalDate endDate,
             String search, Pageable pageable);
 
+    Page<Task> findTasks(TaskFilter filter, Pageable pageable);
+
+    Slice<TaskRow> listTasks(TaskFilter filter, Pageable pageable, TaskCountMode countMode);
+
+    Slice<TaskRow> listTasks(TaskFilter filter, TaskCursor cursor, int limit);
+
+    /**
+     * Version of the task collection, read from the database so that writes through
+     * any instance change it; two listings read at the same version are equal. Empty
+     * while the latest task change is within the settle time, since an earlier-stamped
+     * write committing late would not move it.
+     */
+    OptionalLong getListVersion();
+
+    /**
+     * Tasks changed and tasks deleted after the watermark, at most {@code limit} of them
+     * together. The watermark is an ascending {@code updatedAt} cursor. A watermark older
+     * than the deletion retention starts over with a full sync.
+     */
+    TaskChanges findChanges(TaskCursor since, int limit);
+
+    /**
+     * Streams every task matching the filter, in id order, to the sink in chunks of
+     * at most the configured fetch size, each with its labels attached. Only one chunk
+     * is held in memory at a time.
+     */
+    void exportTasks(TaskFilter filter, Consumer<List<TaskRow>> sink);
+
     Task createTask(TaskCreateDTO taskCreateDTO);
 
+    /**
+     * Creates all tasks in one transaction. Their labels are resolved together and the
+     * inserts are sent in JDBC batches.
+     */
+    List<Task> createTasks(List<TaskCreateDTO> taskCreateDTOs);
+
+    /**
+     * Creates a task for every valid line, in batches of the configured size, each
+     * batch in its own transaction. Lines are consumed as they are inserted; a line
+     * that cannot be imported is reported and skipped. Labels are given by id or by
+     * name and resolved against a single read of the label table.
+     */
+    TaskImportResult importTasks(Iterator<TaskImportLine> lines);
+
     Task getTaskById(Long id);
 
-    Task updateTask(Long id, TaskUpdateDTO taskUpdateDTO);
+    /**
+     * Read-only snapshot of a task and its labels, served from the task cache.
+     */
+    TaskRow getTaskSnapshot(Long id);
+
+    TaskRow updateTask(Long id, TaskUpdateDTO taskUpdateDTO);
+
+    /**
+     * Applies the provided fields. Without a label change this is a single statement
+     * that also reads back the new state; a label change loads and saves the entity.
+     *
+     * @param expectedVersion version the task must be at, or {@code null} to update any version
+     * @throws com.happiness.conan.exception.TaskVersionMismatchException if the task is at another version
+     */
+    TaskRow updateTask(Long id, TaskUpdateDTO taskUpdateDTO, Long expectedVersion);
 
     void deleteTask(Long id);
 
-    List<Task> batchUpdateTasks(BatchUpdateRequestDTO batchUpdateRequestDTO);
+    /**
+     * Applies every valid item of the batch in one transaction and reports each item's
+     * status. The tasks are read in one query; items setting the same fields to the
+     * same values are applied with a single UPDATE, the others flushed in JDBC batches.
+     * Items naming a version are applied only to a task still at that version and
+     * reported as conflicts otherwise.
+     *
+     * @see TaskBatchPartitioner for large batches applied a partition at a time
+     */
+    TaskBatchResult batchUpdateTasks(BatchUpdateRequestDTO batchUpdateRequestDTO);
+
+    /**
+     * Applies the changes to every task matching the filter with set-based statements,
+     * a few per thousand tasks, and returns the number of tasks updated.
+     *
+     * @throws com.happiness.conan.exception.BizException if the filter or the changes are empty
+     */
+    int bulkUpdateTasks(TaskFilter filter, BulkUpdateRequestDTO bulkUpdateRequestDTO);
+
+    /**
+     * Deletes every task matching the filter with set-based statements and returns the
+     * number of tasks deleted.
+     *
+     * @throws com.happiness.conan.exception.BizException if the filter is empty
+     */
+    int bulkDeleteTasks(TaskFilter filter);
 
-    Task toggleTaskCompletion(Long id);
+    /**
+     * Flips the completion status in the database with a single statement that also
+     * reads back the new state, so concurrent toggles never overwrite each other.
+     */
+    TaskRow toggleTaskCompletion(Long id);
 }
\ No newline at end of file
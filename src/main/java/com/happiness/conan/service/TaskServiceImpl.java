@@ -1,36 +1,94 @@
 package com.happiness.conan.service;
 
+import com.happiness.conan.config.TaskChangesProperties;
+import com.happiness.conan.config.TaskExportProperties;
+import com.happiness.conan.config.TaskImportProperties;
+import com.happiness.conan.config.TaskSearchProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
 import com.happiness.conan.domain.model.Label;
 import com.happiness.conan.domain.model.Task;
-import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.model.TaskDeletion;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskDeletionRepository;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelRow;
+import com.happiness.conan.domain.repository.TaskPatch;
 import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import com.happiness.conan.domain.repository.TaskSpecifications;
 import com.happiness.conan.exception.BizException;
 import com.happiness.conan.exception.DomainCode;
+import com.happiness.conan.exception.TaskVersionMismatchException;
 import com.happiness.conan.web.dto.BatchUpdateRequestDTO;
+import com.happiness.conan.web.dto.BulkUpdateRequestDTO;
 import com.happiness.conan.web.dto.LabelDTO;
 import com.happiness.conan.web.dto.TaskCreateDTO;
 import com.happiness.conan.web.dto.TaskUpdateDTO;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TaskServiceImpl implements TaskService {
 
+    private static final long ESTIMATE_COUNT_CAP = 1_000;
+    private static final int TITLE_MAX_LENGTH = 255;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1_000;
+
     private final TaskRepository taskRepository;
-    private final LabelRepository labelRepository;
+    private final TaskDeletionRepository taskDeletionRepository;
+    private final LabelCatalog labelCatalog;
+    private final TaskSearchProperties searchProperties;
+    private final TaskChangesProperties changesProperties;
+    private final TaskExportProperties exportProperties;
+    private final TaskImportProperties importProperties;
+    private final TaskSearchIndex searchIndex;
+    private final TaskLabelIndex labelIndex;
+    private final TaskCache taskCache;
+    private final TaskPageCache pageCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @Transactional(readOnly = true)
@@ -38,47 +96,312 @@ public class TaskServiceImpl implements TaskService {
             LocalDate startDate, LocalDate endDate,
             String search, Pageable pageable) {
 
-        // Filter by status
-        if (status != null && !status.equals("all")) {
-            boolean isCompleted = "completed".equals(status);
-            return taskRepository.findByIsCompleted(isCompleted, pageable);
+        return findTasks(TaskFilter.of(status, priority, labels, startDate, endDate, search), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Task> findTasks(TaskFilter filter, Pageable pageable) {
+        if (filter.isEmpty()) {
+            return withLabels(taskRepository.findAll(pageable));
         }
+        return withLabels(taskRepository.findAll(specification(filter), pageable));
+    }
 
-        // Filter by priority
-        if (priority != null) {
-            try {
-                Task.Priority priorityEnum = Task.Priority.valueOf(priority);
-                return taskRepository.findByPriority(priorityEnum, pageable);
-            } catch (IllegalArgumentException e) {
-                // Invalid priority, return all tasks
-                return taskRepository.findAll(pageable);
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<TaskRow> listTasks(TaskFilter filter, Pageable pageable, TaskCountMode countMode) {
+        TaskPageCache.Key key = TaskPageCache.key(filter, pageable, countMode);
+        Optional<TaskPageCache.CachedPage> cached = pageCache.get(key);
+        if (cached.isPresent()) {
+            return withLabelRows(rowsOf(cached.get(), pageable));
+        }
+
+        long version = pageCache.version();
+        Slice<TaskRow> rows = findRows(filter, pageable, countMode);
+        pageCache.put(key, version, rows);
+        return withLabelRows(rows);
+    }
+
+    private Slice<TaskRow> findRows(TaskFilter filter, Pageable pageable, TaskCountMode countMode) {
+        Specification<Task> spec = filter.isEmpty() ? null : specification(filter);
+
+        Sort.Order relevance = pageable.getSort().getOrderFor(TaskSpecifications.RELEVANCE);
+        if (relevance != null) {
+            if (filter.hasSearch() && searchProperties.getMode() == TaskSearchMode.fulltext) {
+                spec = spec.and(TaskSpecifications.orderedByRelevance(filter.getSearch(), relevance.getDirection()));
+                pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            } else {
+                // Nothing to rank without a full-text search, newest first as usual
+                pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                        Sort.by(relevance.getDirection(), "createdAt"));
             }
         }
 
-        // Filter by labels
-        if (labels != null && !labels.isEmpty()) {
-            return taskRepository.findByLabelIdsAll(labels, labels.size(), pageable);
+        return switch (countMode) {
+            case exact -> taskRepository.findPage(spec, pageable);
+            case window -> taskRepository.findPageWithWindowCount(spec, pageable);
+            case estimate -> findRowsWithEstimatedTotal(spec, pageable);
+            case none -> taskRepository.findSlice(spec, pageable);
+        };
+    }
+
+    /**
+     * Reads the rows of a cached page back by primary key, in the cached order.
+     */
+    private Slice<TaskRow> rowsOf(TaskPageCache.CachedPage page, Pageable pageable) {
+        List<TaskRow> rows = List.of();
+        if (!page.getIds().isEmpty()) {
+            Map<Long, TaskRow> rowsById = taskRepository.findSlice(TaskSpecifications.idIn(page.getIds()),
+                            Pageable.unpaged())
+                    .stream()
+                    .collect(Collectors.toMap(TaskRow::getId, Function.identity()));
+            rows = page.getIds().stream().map(rowsById::get).filter(Objects::nonNull).toList();
+        }
+        return page.getTotal() != null
+                ? new PageImpl<>(rows, pageable, page.getTotal())
+                : new SliceImpl<>(rows, pageable, page.isHasNext());
+    }
+
+    private Page<TaskRow> findRowsWithEstimatedTotal(Specification<Task> spec, Pageable pageable) {
+        Slice<TaskRow> slice = taskRepository.findSlice(spec, pageable);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext()) {
+            // The last page tells the exact total for free
+            return new PageImpl<>(slice.getContent(), pageable, seen);
+        }
+
+        // A planner estimate may fall short of the rows already seen
+        long estimate = taskRepository.estimateCount(spec, ESTIMATE_COUNT_CAP);
+        return new PageImpl<>(slice.getContent(), pageable, Math.max(estimate, seen + 1));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<TaskRow> listTasks(TaskFilter filter, TaskCursor cursor, int limit) {
+        // Read one extra row to find out whether another page follows
+        List<TaskRow> rows = taskRepository.findAfter(specification(filter), cursor, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<TaskRow> content = hasNext ? rows.subList(0, limit) : rows;
+        return withLabelRows(new SliceImpl<>(content, Pageable.ofSize(limit), hasNext));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OptionalLong getListVersion() {
+        // Deleting the latest updated task leaves a later deletion behind
+        Optional<LocalDateTime> lastChange = Stream.of(taskRepository.findLastUpdatedAt(),
+                        taskDeletionRepository.findLastDeletedAt())
+                .flatMap(Optional::stream)
+                .max(Comparator.naturalOrder());
+        LocalDateTime settled = LocalDateTime.now().minus(changesProperties.getSettleTime());
+        if (lastChange.isPresent() && lastChange.get().isAfter(settled)) {
+            return OptionalLong.empty();
+        }
+
+        long changedAt = lastChange
+                .map(time -> time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000)
+                .orElse(0L);
+        // Label names and colors are listed too
+        long labels = labelCatalog.all().stream()
+                .mapToLong(label -> Objects.hash(label.getId(), label.getName(), label.getColor()))
+                .sum();
+        return OptionalLong.of(31 * changedAt + labels);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TaskChanges findChanges(TaskCursor since, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settled = now.minus(changesProperties.getSettleTime());
+
+        // Deletions before the retention may be forgotten already
+        boolean resync = !since.isFirst()
+                && ((LocalDateTime) since.getLastValue()).isBefore(now.minus(changesProperties.getRetention()));
+        if (resync) {
+            since = TaskCursor.first(since.getSortField(), since.getDirection());
         }
 
-        // Filter by date range
-        if (startDate != null && endDate != null) {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
-            return taskRepository.findByDueDateBetween(startDateTime, endDateTime, pageable);
+        // Changed tasks and tombstones form one timeline in (time, id) order; read one
+        // extra entry of each to find out whether more changes are waiting
+        List<TaskRow> rows = taskRepository.findAfter(null, since, limit + 1);
+        // A first sync has no deleted task to hear about
+        List<TaskDeletion> deletions = since.isFirst()
+                ? List.of()
+                : taskDeletionRepository.findAfter((LocalDateTime) since.getLastValue(), since.getLastId(),
+                        Limit.of(limit + 1));
+
+        List<TaskRow> changed = new ArrayList<>();
+        List<Long> deletedIds = new ArrayList<>();
+        TaskCursor watermark = since;
+        int row = 0;
+        int deletion = 0;
+        while (changed.size() + deletedIds.size() < limit && (row < rows.size() || deletion < deletions.size())) {
+            if (deletion == deletions.size()
+                    || (row < rows.size() && isBefore(rows.get(row), deletions.get(deletion)))) {
+                TaskRow task = rows.get(row++);
+                changed.add(task);
+                watermark = since.after(task);
+            } else {
+                TaskDeletion tombstone = deletions.get(deletion++);
+                deletedIds.add(tombstone.getTaskId());
+                watermark = since.after(tombstone.getDeletedAt(), tombstone.getTaskId());
+            }
         }
+        boolean hasMore = row < rows.size() || deletion < deletions.size();
 
-        // Search by title or description
-        if (search != null && !search.isBlank()) {
-            return taskRepository.findByTitleOrDescriptionContainingIgnoreCase(search, pageable);
+        if (!hasMore) {
+            watermark = settledWatermark(since, watermark, settled);
         }
+        return new TaskChanges(withLabelRows(new SliceImpl<>(changed)).getContent(), deletedIds, watermark, hasMore,
+                resync);
+    }
 
-        // Default: return all tasks
-        return taskRepository.findAll(pageable);
+    private static boolean isBefore(TaskRow task, TaskDeletion tombstone) {
+        int byTime = task.getUpdatedAt().compareTo(tombstone.getDeletedAt());
+        return byTime != 0 ? byTime < 0 : task.getId() < tombstone.getTaskId();
+    }
+
+
+    /**
+     * Keeps a caught-up watermark from passing the settle point, so tasks committed late
+     * with an earlier update time are still picked up; never moves it back before {@code since}.
+     */
+    private static TaskCursor settledWatermark(TaskCursor since, TaskCursor watermark, LocalDateTime settled) {
+        LocalDateTime reached = (LocalDateTime) watermark.getLastValue();
+        if (reached == null || !reached.isAfter(settled)) {
+            return watermark;
+        }
+        LocalDateTime from = (LocalDateTime) since.getLastValue();
+        if (from != null && !from.isBefore(settled)) {
+            return since;
+        }
+        return TaskCursor.at(since.getSortField(), since.getDirection(), settled);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(TaskFilter filter, Consumer<List<TaskRow>> sink) {
+        Specification<Task> spec = filter.isEmpty() ? null : specification(filter);
+        int chunkSize = exportProperties.getFetchSize();
+
+        try (Stream<TaskRow> rows = taskRepository.streamRows(spec, Sort.by("id"), chunkSize)) {
+            Iterator<TaskRow> iterator = rows.iterator();
+            List<TaskRow> chunk = new ArrayList<>(chunkSize);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    sink.accept(withLabelRows(new SliceImpl<>(chunk)).getContent());
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        }
+    }
+
+    private Specification<Task> specification(TaskFilter filter) {
+        TaskSearchMode searchMode = searchProperties.getMode();
+
+        // Index lookups narrow the query down to candidate ids
+        Specification<Task> spec = Specification.where(null);
+        if (filter.hasLabels() && labelIndex.isEnabled()) {
+            Optional<List<Long>> labelled = switch (filter.getLabelMode()) {
+                case any -> labelIndex.findWithAnyLabel(filter.getLabelIds());
+                case all -> labelIndex.findWithAllLabels(filter.getLabelIds());
+                case none -> labelIndex.findWithNoLabel(filter.getLabelIds());
+            };
+            if (labelled.isPresent()) {
+                // The label predicate stays too, so an index behind the database cannot add wrong rows
+                spec = spec.and(TaskSpecifications.idIn(labelled.get()));
+            }
+        }
+        if (searchMode == TaskSearchMode.index && filter.hasSearch()) {
+            // The LIKE predicate stays, the database only evaluates it on the candidates
+            Optional<List<Long>> matched = searchIndex.findCandidates(filter.getSearch());
+            if (matched.isPresent()) {
+                spec = spec.and(TaskSpecifications.idIn(matched.get()));
+            }
+        }
+        return spec.and(sqlSpecification(filter));
+    }
+
+    /**
+     * Filter evaluated by the database alone, without candidates from the in-memory
+     * indexes.
+     */
+    private Specification<Task> sqlSpecification(TaskFilter filter) {
+        TaskSearchMode searchMode = searchProperties.getMode();
+        if (filter.isFuzzySearch() && searchMode.usesTrigrams()) {
+            double threshold = filter.getSimilarity() != null
+                    ? filter.getSimilarity()
+                    : searchProperties.getFuzzyThreshold();
+            taskRepository.setSimilarityThreshold(Math.max(0, Math.min(1, threshold)));
+        }
+        return TaskSpecifications.matching(filter, searchMode);
+    }
+
+    /**
+     * Attaches labels to listed rows with a single query over the page's task-label
+     * associations; label names and colors come from the label catalog.
+     */
+    private Slice<TaskRow> withLabelRows(Slice<TaskRow> rows) {
+        if (!rows.hasContent()) {
+            return rows;
+        }
+
+        List<Long> taskIds = rows.map(TaskRow::getId).getContent();
+        List<TaskLabelRow> associations = taskRepository.findLabelIdsByTaskIdIn(taskIds);
+        Map<Long, Label> labels = labelCatalog.resolve(associations.stream().map(TaskLabelRow::getLabelId).toList())
+                .stream()
+                .collect(Collectors.toMap(Label::getId, Function.identity()));
+        Map<Long, List<Label>> labelsByTask = associations.stream()
+                .filter(association -> labels.containsKey(association.getLabelId()))
+                .collect(Collectors.groupingBy(TaskLabelRow::getTaskId,
+                        Collectors.mapping(association -> labels.get(association.getLabelId()), Collectors.toList())));
+        return rows.map(row -> row.withLabels(labelsByTask.getOrDefault(row.getId(), List.of())));
+    }
+
+    /**
+     * Loads the labels of every listed task inside the transaction. Label sets are
+     * batch fetched, so the first initialization loads the whole page in one statement.
+     */
+    private <T extends Iterable<Task>> T withLabels(T tasks) {
+        tasks.forEach(task -> Hibernate.initialize(task.getLabels()));
+        return tasks;
     }
 
     @Override
     @Transactional
     public Task createTask(TaskCreateDTO taskCreateDTO) {
+        return saved(newTask(taskCreateDTO, labelsById(List.of(taskCreateDTO))), TaskChangedEvent.Type.CREATED);
+    }
+
+    @Override
+    @Transactional
+    public List<Task> createTasks(List<TaskCreateDTO> taskCreateDTOs) {
+        Map<Long, Label> labels = labelsById(taskCreateDTOs);
+        // Persisted without flushing, the inserts go out batched at commit
+        return taskCreateDTOs.stream()
+                .map(taskCreateDTO -> saved(newTask(taskCreateDTO, labels), TaskChangedEvent.Type.CREATED))
+                .toList();
+    }
+
+    /**
+     * Labels referenced by any of the requests, resolved at once.
+     */
+    private Map<Long, Label> labelsById(List<TaskCreateDTO> taskCreateDTOs) {
+        List<Long> labelIds = taskCreateDTOs.stream()
+                .filter(taskCreateDTO -> taskCreateDTO.getLabels() != null)
+                .flatMap(taskCreateDTO -> taskCreateDTO.getLabels().stream())
+                .map(LabelDTO::getId)
+                .toList();
+        if (labelIds.isEmpty()) {
+            return Map.of();
+        }
+        return labelCatalog.resolveExisting(labelIds).stream()
+                .collect(Collectors.toMap(Label::getId, Function.identity()));
+    }
+
+    private static Task newTask(TaskCreateDTO taskCreateDTO, Map<Long, Label> labels) {
         Task task = new Task();
         task.setTitle(taskCreateDTO.getTitle());
         task.setDescription(taskCreateDTO.getDescription());
@@ -98,17 +421,176 @@ public class TaskServiceImpl implements TaskService {
         // Set completion status (default to false if not provided)
         task.setCompleted(taskCreateDTO.getIsCompleted() != null ? taskCreateDTO.getIsCompleted() : false);
 
-        // Set labels if provided
+        // Set labels if provided; unknown label ids are ignored
         if (taskCreateDTO.getLabels() != null && !taskCreateDTO.getLabels().isEmpty()) {
-            List<Long> labelIds = taskCreateDTO.getLabels()
-                    .stream()
+            task.setLabels(taskCreateDTO.getLabels().stream()
                     .map(LabelDTO::getId)
-                    .toList();
-            Set<Label> taskLabels = new HashSet<>(labelRepository.findAllById(labelIds));
-            task.setLabels(taskLabels);
+                    .filter(Objects::nonNull)
+                    .map(labels::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(HashSet::new)));
         }
 
-        return taskRepository.save(task);
+        return task;
+    }
+
+    @Override
+    public TaskImportResult importTasks(Iterator<TaskImportLine> lines) {
+        // One read of the label table for the whole import
+        labelCatalog.refresh();
+        LabelLookup labels = new LabelLookup(labelCatalog.all());
+        ImportProgress progress = new ImportProgress(importProperties.getMaxErrors());
+
+        Map<Long, Task> batch = new LinkedHashMap<>();
+        while (lines.hasNext()) {
+            TaskImportLine line = lines.next();
+            if (line.isFailed()) {
+                progress.reject(line.getLineNumber(), line.getError());
+                continue;
+            }
+            try {
+                batch.put(line.getLineNumber(), importedTask(line.getTask(), labels));
+            } catch (IllegalArgumentException e) {
+                progress.reject(line.getLineNumber(), e.getMessage());
+                continue;
+            }
+            if (batch.size() == importProperties.getBatchSize()) {
+                insertBatch(batch, progress);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertBatch(batch, progress);
+        }
+        return progress.result();
+    }
+
+    /**
+     * Inserts the tasks of a batch, keyed by line number, in one transaction. When the
+     * database rejects the batch, its tasks are inserted one per transaction instead,
+     * so only the lines at fault are rejected.
+     */
+    private void insertBatch(Map<Long, Task> batch, ImportProgress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    batch.values().forEach(task -> saved(task, TaskChangedEvent.Type.CREATED)));
+            progress.imported(batch.size());
+        } catch (DataAccessException | TransactionException e) {
+            batch.forEach((lineNumber, task) -> {
+                // Assigned by the rolled back insert
+                task.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> saved(task, TaskChangedEvent.Type.CREATED));
+                    progress.imported(1);
+                } catch (DataAccessException | TransactionException taskException) {
+                    progress.reject(lineNumber, "Rejected by the database");
+                }
+            });
+        }
+    }
+
+    /**
+     * New task for an import line. Unlike {@link #createTask}, an unknown priority or
+     * label is an error rather than ignored, since nobody is there to notice.
+     *
+     * @throws IllegalArgumentException if the line does not describe a valid task
+     */
+    private static Task importedTask(TaskCreateDTO line, LabelLookup labels) {
+        if (line.getTitle() == null || line.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (line.getTitle().length() > TITLE_MAX_LENGTH) {
+            throw new IllegalArgumentException("Title is longer than " + TITLE_MAX_LENGTH + " characters");
+        }
+
+        Task task = new Task();
+        task.setTitle(line.getTitle());
+        task.setDescription(line.getDescription());
+        task.setDueDate(line.getDueDate());
+        task.setPriority(Task.Priority.medium);
+        if (line.getPriority() != null) {
+            try {
+                task.setPriority(Task.Priority.valueOf(line.getPriority()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown priority: " + line.getPriority());
+            }
+        }
+        task.setCompleted(line.getIsCompleted() != null ? line.getIsCompleted() : false);
+        if (line.getLabels() != null) {
+            task.setLabels(line.getLabels().stream()
+                    .map(labels::find)
+                    .collect(Collectors.toCollection(HashSet::new)));
+        }
+        return task;
+    }
+
+    /**
+     * Labels of an import by id and by case-insensitive name.
+     */
+    private static final class LabelLookup {
+
+        private final Map<Long, Label> byId;
+        private final Map<String, List<Label>> byName;
+
+        LabelLookup(List<Label> labels) {
+            byId = labels.stream().collect(Collectors.toMap(Label::getId, Function.identity()));
+            byName = labels.stream().collect(Collectors.groupingBy(label -> key(label.getName())));
+        }
+
+        Label find(LabelDTO label) {
+            if (label.getId() != null) {
+                Label found = byId.get(label.getId());
+                if (found == null) {
+                    throw new IllegalArgumentException("Unknown label id: " + label.getId());
+                }
+                return found;
+            }
+            if (label.getName() == null) {
+                throw new IllegalArgumentException("Label without id or name");
+            }
+            List<Label> named = byName.getOrDefault(key(label.getName()), List.of());
+            if (named.size() != 1) {
+                throw new IllegalArgumentException(
+                        (named.isEmpty() ? "Unknown label: " : "Ambiguous label name: ") + label.getName());
+            }
+            return named.get(0);
+        }
+
+        private static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Counts of an import in progress, and the first rejected lines.
+     */
+    private static final class ImportProgress {
+
+        private final int maxErrors;
+        private final List<TaskImportResult.LineError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void imported(int count) {
+            imported += count;
+        }
+
+        void reject(long lineNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new TaskImportResult.LineError(lineNumber, message));
+            }
+        }
+
+        TaskImportResult result() {
+            // Lines of a batch retried one by one are rejected after the lines following it
+            errors.sort(Comparator.comparingLong(TaskImportResult.LineError::getLineNumber));
+            return new TaskImportResult(imported, failed, List.copyOf(errors));
+        }
     }
 
     @Override
@@ -118,10 +600,50 @@ public class TaskServiceImpl implements TaskService {
                 .orElseThrow(() -> new BizException(DomainCode.BAD_REQUEST));
     }
 
+    @Override
+    public TaskRow getTaskSnapshot(Long id) {
+        // No transaction around cache hits; findById fetches the labels along with the task
+        return taskCache.get(id, taskId -> TaskRow.of(getTaskById(taskId)));
+    }
+
+    @Override
+    @Transactional
+    public TaskRow updateTask(Long id, TaskUpdateDTO taskUpdateDTO) {
+        return updateTask(id, taskUpdateDTO, null);
+    }
+
     @Override
     @Transactional
-    public Task updateTask(Long id, TaskUpdateDTO taskUpdateDTO) {
+    public TaskRow updateTask(Long id, TaskUpdateDTO taskUpdateDTO, Long expectedVersion) {
+        Task.Priority priority = null;
+        if (taskUpdateDTO.getPriority() != null) {
+            try {
+                priority = Task.Priority.valueOf(taskUpdateDTO.getPriority());
+            } catch (IllegalArgumentException e) {
+                // Keep existing priority if invalid
+            }
+        }
+        TaskPatch patch = TaskPatch.builder()
+                .title(taskUpdateDTO.getTitle())
+                .description(taskUpdateDTO.getDescription())
+                .dueDate(taskUpdateDTO.getDueDate())
+                .priority(priority)
+                .completed(taskUpdateDTO.getIsCompleted())
+                .build();
+        if (taskUpdateDTO.getLabels() == null && !patch.isEmpty()) {
+            // Field changes alone need neither the entity nor its labels loaded first
+            Optional<TaskRow> row = taskRepository.updateReturning(id, patch, expectedVersion, LocalDateTime.now());
+            if (row.isEmpty() && expectedVersion != null && taskRepository.existsById(id)) {
+                throw new TaskVersionMismatchException();
+            }
+            return published(row.orElseThrow(() -> new BizException(DomainCode.BAD_REQUEST)),
+                    TaskChangedEvent.Type.UPDATED);
+        }
+
         Task task = getTaskById(id);
+        if (expectedVersion != null && task.getVersion() != expectedVersion) {
+            throw new TaskVersionMismatchException();
+        }
 
         // Update only the fields that are provided
         if (taskUpdateDTO.getTitle() != null) {
@@ -149,15 +671,27 @@ public class TaskServiceImpl implements TaskService {
         }
 
         if (taskUpdateDTO.getLabels() != null) {
-            Set<Label> taskLabels = new HashSet<>(labelRepository.findAllById(taskUpdateDTO
+            Set<Label> taskLabels = new HashSet<>(labelCatalog.resolveExisting(taskUpdateDTO
                     .getLabels()
                     .stream()
                     .map(LabelDTO::getId)
                     .collect(Collectors.toList())));
             task.setLabels(taskLabels);
+            // A label change alone leaves the row untouched, so @PreUpdate would not run
+            task.setUpdatedAt(LocalDateTime.now());
         }
 
-        return taskRepository.save(task);
+        Task saved = saved(task, TaskChangedEvent.Type.UPDATED);
+        try {
+            // Flushed so the snapshot carries the bumped version
+            taskRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw new TaskVersionMismatchException();
+            }
+            throw e;
+        }
+        return TaskRow.of(saved);
     }
 
     @Override
@@ -165,34 +699,301 @@ public class TaskServiceImpl implements TaskService {
     public void deleteTask(Long id) {
         Task task = getTaskById(id);
         taskRepository.delete(task);
+        taskDeletionRepository.save(new TaskDeletion(id, LocalDateTime.now()));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id));
     }
 
     @Override
     @Transactional
-    public List<Task> batchUpdateTasks(BatchUpdateRequestDTO batchUpdateRequestDTO) {
-        List<Task> updatedTasks = new ArrayList<>();
-
-        for (BatchUpdateRequestDTO.TaskBatchUpdateDTO updateItem : batchUpdateRequestDTO.getUpdates()) {
-            Long taskId = updateItem.getId();
-            TaskUpdateDTO taskUpdateDTO = updateItem.getTask();
+    public TaskBatchResult batchUpdateTasks(BatchUpdateRequestDTO batchUpdateRequestDTO) {
+        List<BatchUpdateRequestDTO.TaskBatchUpdateDTO> items = batchUpdateRequestDTO.getUpdates() != null
+                ? batchUpdateRequestDTO.getUpdates()
+                : List.of();
+        TaskBatchResult.Item[] outcomes = new TaskBatchResult.Item[items.size()];
 
+        // Every item is checked before touching the database
+        Map<Long, PendingUpdate> pending = new LinkedHashMap<>();
+        for (int index = 0; index < items.size(); index++) {
+            BatchUpdateRequestDTO.TaskBatchUpdateDTO item = items.get(index);
             try {
-                Task updatedTask = updateTask(taskId, taskUpdateDTO);
-                updatedTasks.add(updatedTask);
-            } catch (Exception e) {
-                // Skip tasks that don't exist
+                PendingUpdate update = pendingUpdate(index, item);
+                if (pending.putIfAbsent(update.getId(), update) != null) {
+                    throw new IllegalArgumentException("Task already updated by an earlier item");
+                }
+            } catch (IllegalArgumentException e) {
+                outcomes[index] = invalid(item.getId(), e.getMessage());
+            }
+        }
+
+        // Labels of the whole batch resolved at once
+        Map<Long, Label> labels = labelCatalog.resolveExisting(pending.values().stream()
+                        .filter(update -> update.getLabelIds() != null)
+                        .flatMap(update -> update.getLabelIds().stream())
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Label::getId, Function.identity()));
+        pending.values().removeIf(update -> {
+            Optional<Long> unknown = update.getLabelIds() == null ? Optional.empty() : update.getLabelIds().stream()
+                    .filter(labelId -> !labels.containsKey(labelId))
+                    .findFirst();
+            unknown.ifPresent(labelId -> outcomes[update.getIndex()] = invalid(update.getId(), "Unknown label id: " + labelId));
+            return unknown.isPresent();
+        });
+
+        Set<Long> existing = new HashSet<>();
+        for (List<Long> ids : chunks(List.copyOf(pending.keySet()))) {
+            existing.addAll(taskRepository.findIdsByIdIn(ids));
+        }
+        pending.values().removeIf(update -> {
+            if (existing.contains(update.getId())) {
+                return false;
+            }
+            outcomes[update.getIndex()] = notFound(update.getId());
+            return true;
+        });
+
+        // Items setting the same fields to the same values share one UPDATE, unless their
+        // version is to be checked first
+        LocalDateTime now = LocalDateTime.now();
+        Map<TaskPatch, List<Long>> groups = pending.values().stream()
+                .filter(update -> update.getLabelIds() == null && update.getExpectedVersion() == null
+                        && !update.getPatch().isEmpty())
+                .collect(Collectors.groupingBy(PendingUpdate::getPatch, LinkedHashMap::new,
+                        Collectors.mapping(PendingUpdate::getId, Collectors.toList())));
+        Set<Long> bulkUpdated = new HashSet<>();
+        groups.forEach((patch, ids) -> {
+            if (ids.size() > 1) {
+                chunks(ids).forEach(chunk -> taskRepository.updateAll(chunk, patch, now));
+                bulkUpdated.addAll(ids);
+            }
+        });
+
+        // Loaded after the bulk updates, so their tasks are read back updated
+        Map<Long, Task> tasks = new HashMap<>();
+        for (List<Long> ids : chunks(List.copyOf(pending.keySet()))) {
+            taskRepository.findByIdIn(ids).forEach(task -> tasks.put(task.getId(), task));
+        }
+
+        List<Task> updated = new ArrayList<>(pending.size());
+        for (PendingUpdate update : pending.values()) {
+            Task task = tasks.get(update.getId());
+            if (task == null) {
+                // Deleted since the existence check
+                outcomes[update.getIndex()] = notFound(update.getId());
+                continue;
+            }
+            if (update.getExpectedVersion() != null && task.getVersion() != update.getExpectedVersion()) {
+                outcomes[update.getIndex()] = new TaskBatchResult.Item(task.getId(), TaskBatchResult.Status.conflict,
+                        "Task is at version " + task.getVersion());
                 continue;
             }
+            if (!bulkUpdated.contains(task.getId())) {
+                // Managed, so the change is flushed at commit, batched with the others
+                update.getPatch().applyTo(task);
+                if (update.getLabelIds() != null) {
+                    task.setLabels(update.getLabelIds().stream()
+                            .map(labels::get)
+                            .collect(Collectors.toCollection(HashSet::new)));
+                    task.setUpdatedAt(now);
+                }
+            }
+            eventPublisher.publishEvent(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task));
+            updated.add(task);
+            outcomes[update.getIndex()] = new TaskBatchResult.Item(task.getId(), TaskBatchResult.Status.updated, null);
         }
 
-        return updatedTasks;
+        return new TaskBatchResult(updated, List.of(outcomes));
     }
 
     @Override
     @Transactional
-    public Task toggleTaskCompletion(Long id) {
-        Task task = getTaskById(id);
-        task.setCompleted(!task.isCompleted());
-        return taskRepository.save(task);
+    public int bulkUpdateTasks(TaskFilter filter, BulkUpdateRequestDTO bulkUpdateRequestDTO) {
+        Task.Priority priority = null;
+        if (bulkUpdateRequestDTO.getPriority() != null) {
+            try {
+                priority = Task.Priority.valueOf(bulkUpdateRequestDTO.getPriority());
+            } catch (IllegalArgumentException e) {
+                throw new BizException(DomainCode.INVALID_INPUT);
+            }
+        }
+        TaskPatch patch = TaskPatch.builder()
+                .dueDate(bulkUpdateRequestDTO.getDueDate())
+                .priority(priority)
+                .completed(bulkUpdateRequestDTO.getIsCompleted())
+                .build();
+        List<Long> addLabelIds = nonNullIds(bulkUpdateRequestDTO.getAddLabelIds());
+        List<Long> removeLabelIds = nonNullIds(bulkUpdateRequestDTO.getRemoveLabelIds());
+        if (patch.isEmpty() && addLabelIds.isEmpty() && removeLabelIds.isEmpty()) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+
+        // Rows are read before the update: it changes neither titles nor descriptions
+        List<TaskRow> rows;
+        try (Stream<TaskRow> matching = taskRepository.streamRows(
+                bulkSpecification(filter), Sort.by("id"), IN_CLAUSE_CHUNK_SIZE)) {
+            rows = matching.toList();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < rows.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<TaskRow> chunk = rows.subList(from, Math.min(rows.size(), from + IN_CLAUSE_CHUNK_SIZE));
+            List<Long> ids = chunk.stream().map(TaskRow::getId).toList();
+
+            // Also stamps updatedAt when only the labels change
+            taskRepository.updateAll(ids, patch, now);
+            if (!removeLabelIds.isEmpty()) {
+                taskRepository.removeLabels(ids, removeLabelIds);
+            }
+            if (!addLabelIds.isEmpty()) {
+                taskRepository.addLabels(ids, addLabelIds);
+            }
+
+            Map<Long, Set<Long>> labelIds = taskRepository.findLabelIdsByTaskIdIn(ids).stream()
+                    .collect(Collectors.groupingBy(TaskLabelRow::getTaskId,
+                            Collectors.mapping(TaskLabelRow::getLabelId, Collectors.toSet())));
+            chunk.forEach(row -> eventPublisher.publishEvent(TaskChangedEvent.saved(
+                    TaskChangedEvent.Type.UPDATED, row, labelIds.getOrDefault(row.getId(), Set.of()))));
+        }
+        return rows.size();
+    }
+
+    @Override
+    @Transactional
+    public int bulkDeleteTasks(TaskFilter filter) {
+        List<Long> ids = taskRepository.findIds(bulkSpecification(filter));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (List<Long> chunk : chunks(ids)) {
+            // The generated test schema has no ON DELETE CASCADE on task_labels
+            taskRepository.removeAllLabels(chunk);
+            taskRepository.deleteAllByIdIn(chunk);
+            taskDeletionRepository.saveAll(chunk.stream()
+                    .map(id -> new TaskDeletion(id, now))
+                    .toList());
+            chunk.forEach(id -> eventPublisher.publishEvent(TaskChangedEvent.deleted(id)));
+        }
+        return ids.size();
+    }
+
+    /**
+     * Bulk operations need a filter, so that a request missing its parameters cannot
+     * change every task. Their rows are selected by the database alone: the in-memory
+     * indexes only follow this instance's committed writes, and a stale candidate list
+     * would change or delete the wrong tasks.
+     */
+    private Specification<Task> bulkSpecification(TaskFilter filter) {
+        if (filter.isEmpty()) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        return sqlSpecification(filter);
+    }
+
+    private static List<Long> nonNullIds(List<Long> ids) {
+        return ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    /**
+     * Checks a batch item and converts it to a patch.
+     *
+     * @throws IllegalArgumentException if the item cannot be applied to any task
+     */
+    private static PendingUpdate pendingUpdate(int index, BatchUpdateRequestDTO.TaskBatchUpdateDTO item) {
+        TaskUpdateDTO taskUpdateDTO = item.getTask();
+        if (item.getId() == null || taskUpdateDTO == null) {
+            throw new IllegalArgumentException("Task id and fields are required");
+        }
+        if (taskUpdateDTO.getTitle() != null && taskUpdateDTO.getTitle().isBlank()) {
+            throw new IllegalArgumentException("Title must not be blank");
+        }
+
+        Task.Priority priority = null;
+        if (taskUpdateDTO.getPriority() != null) {
+            try {
+                priority = Task.Priority.valueOf(taskUpdateDTO.getPriority());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown priority: " + taskUpdateDTO.getPriority());
+            }
+        }
+
+        List<Long> labelIds = null;
+        if (taskUpdateDTO.getLabels() != null) {
+            labelIds = taskUpdateDTO.getLabels().stream().map(LabelDTO::getId).distinct().toList();
+            if (labelIds.contains(null)) {
+                throw new IllegalArgumentException("Labels are given by id");
+            }
+        }
+
+        TaskPatch patch = TaskPatch.builder()
+                .title(taskUpdateDTO.getTitle())
+                .description(taskUpdateDTO.getDescription())
+                .dueDate(taskUpdateDTO.getDueDate())
+                .priority(priority)
+                .completed(taskUpdateDTO.getIsCompleted())
+                .build();
+        return new PendingUpdate(index, item.getId(), item.getVersion(), patch, labelIds);
+    }
+
+    private static TaskBatchResult.Item invalid(Long id, String message) {
+        return new TaskBatchResult.Item(id, TaskBatchResult.Status.invalid, message);
+    }
+
+    private static TaskBatchResult.Item notFound(Long id) {
+        return new TaskBatchResult.Item(id, TaskBatchResult.Status.not_found, "Task not found");
+    }
+
+    /**
+     * Splits ids into lists short enough for an IN clause.
+     */
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + IN_CLAUSE_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Valid batch item waiting to be applied. {@code expectedVersion} and
+     * {@code labelIds} are {@code null} when the item checks no version or leaves the
+     * labels unchanged.
+     */
+    @Value
+    private static class PendingUpdate {
+
+        int index;
+
+        Long id;
+
+        Long expectedVersion;
+
+        TaskPatch patch;
+
+        List<Long> labelIds;
+    }
+
+    @Override
+    @Transactional
+    public TaskRow toggleTaskCompletion(Long id) {
+        TaskRow row = taskRepository.toggleCompletion(id, LocalDateTime.now())
+                .orElseThrow(() -> new BizException(DomainCode.BAD_REQUEST));
+        return published(row, TaskChangedEvent.Type.TOGGLED);
+    }
+
+    /**
+     * Publishes the change of a row updated in place, and attaches its labels, which
+     * the update read back by id only.
+     */
+    private TaskRow published(TaskRow row, TaskChangedEvent.Type type) {
+        Set<Long> labelIds = row.getLabels().stream().map(Label::getId).collect(Collectors.toSet());
+        eventPublisher.publishEvent(TaskChangedEvent.saved(type, row, labelIds));
+        return row.withLabels(labelCatalog.resolve(labelIds).stream()
+                .sorted(Comparator.comparing(Label::getId))
+                .toList());
+    }
+
+    private Task saved(Task task, TaskChangedEvent.Type type) {
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.saved(type, saved));
+        return saved;
     }
 }
\ No newline at end of file
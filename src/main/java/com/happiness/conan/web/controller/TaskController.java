@@ -1,6 +1,21 @@
 package com.happiness.conan.web.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSpecifications;
+import com.happiness.conan.exception.BizException;
+import com.happiness.conan.exception.DomainCode;
+import com.happiness.conan.exception.TaskVersionMismatchException;
+import com.happiness.conan.service.TaskBatchPartitioner;
+import com.happiness.conan.service.TaskBatchResult;
+import com.happiness.conan.service.TaskChangeFeed;
+import com.happiness.conan.service.TaskImportLine;
+import com.happiness.conan.service.TaskImportResult;
 import com.happiness.conan.service.TaskService;
 import com.happiness.conan.web.dto.*;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,20 +25,41 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.time.LocalDate;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
 
 @RestController
@@ -32,11 +68,16 @@ import java.util.stream.Collectors;
 @Tag(name = "Task Management", description = "APIs for managing tasks")
 public class TaskController {
 
+    private static final String CHANGES_SORT_FIELD = "updatedAt";
+
     private final TaskService taskService;
+    private final TaskChangeFeed taskChangeFeed;
+    private final TaskBatchPartitioner taskBatchPartitioner;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "List tasks",
-            description = "Get a list of tasks with optional filtering by status, priority, labels, date range, and search term"
+            description = "Get a list of tasks filtered by any combination of status, priority, labels, date range, and search term"
     )
     @ApiResponses({
             @ApiResponse(
@@ -58,29 +99,27 @@ public class TaskController {
             @Parameter(description = "Number of items per page", example = "10")
             @RequestParam(defaultValue = "10") int limit,
 
-            @Parameter(description = "Filter by task status", schema = @Schema(allowableValues = {"all", "active", "completed"}))
-            @RequestParam(required = false) String status,
+            @ParameterObject TaskFilterDTO filterDTO,
 
-            @Parameter(description = "Filter by task priority", schema = @Schema(allowableValues = {"low", "medium", "high"}))
-            @RequestParam(required = false) String priority,
+            @Parameter(description = "Field to sort by; defaults to relevance when searching and createdAt otherwise",
+                    schema = @Schema(allowableValues = {"dueDate", "priority", "createdAt", "relevance"}))
+            @RequestParam(required = false) String sortBy,
 
-            @Parameter(description = "Filter by label IDs")
-            @RequestParam(required = false) List<Long> labels,
+            @Parameter(description = "Sort direction", schema = @Schema(allowableValues = {"asc", "desc"}))
+            @RequestParam(required = false, defaultValue = "desc") String sortOrder,
 
-            @Parameter(description = "Filter by start date (format: yyyy-MM-dd)", example = "2025-03-01")
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+            @Parameter(description = "Pagination mode; cursor mode pages through nextCursor tokens instead of page numbers",
+                    schema = @Schema(allowableValues = {"offset", "cursor"}))
+            @RequestParam(required = false, defaultValue = "offset") String pagination,
 
-            @Parameter(description = "Filter by end date (format: yyyy-MM-dd)", example = "2025-03-31")
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page (implies cursor mode)")
+            @RequestParam(required = false) String cursor,
 
-            @Parameter(description = "Search term for task title/description")
-            @RequestParam(required = false) String search,
+            @Parameter(description = "How the total is computed; none only reports whether a next page exists",
+                    schema = @Schema(allowableValues = {"exact", "window", "estimate", "none"}))
+            @RequestParam(required = false, defaultValue = "exact") String countMode,
 
-            @Parameter(description = "Field to sort by", schema = @Schema(allowableValues = {"dueDate", "priority", "createdAt"}))
-            @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
-
-            @Parameter(description = "Sort direction", schema = @Schema(allowableValues = {"asc", "desc"}))
-            @RequestParam(required = false, defaultValue = "desc") String sortOrder) {
+            WebRequest webRequest) {
 
         // Validate and normalize pagination
         page = Math.max(1, page);
@@ -89,6 +128,11 @@ public class TaskController {
         // Create Sort object based on sortBy and sortOrder
         Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
 
+        if (sortBy == null) {
+            String search = filterDTO.getSearch();
+            sortBy = search != null && !search.isBlank() ? TaskSpecifications.RELEVANCE : "createdAt";
+        }
+
         String sortField;
         switch (sortBy) {
             case "dueDate":
@@ -97,33 +141,323 @@ public class TaskController {
             case "priority":
                 sortField = "priority";
                 break;
+            case TaskSpecifications.RELEVANCE:
+                sortField = TaskSpecifications.RELEVANCE;
+                break;
             case "createdAt":
             default:
                 sortField = "createdAt";
                 break;
         }
 
+        TaskFilter filter = filterDTO.toFilter();
+
+        // Read before listing: a change committing meanwhile makes the next poll miss the ETag
+        OptionalLong listVersion = taskService.getListVersion();
+        if (listVersion.isPresent() && webRequest.checkNotModified(listETag(listVersion.getAsLong()))) {
+            return null;
+        }
+
+        if (cursor != null || "cursor".equalsIgnoreCase(pagination)) {
+            return ResponseEntity.ok(listTasksAfter(filter, cursor, sortField, direction, limit));
+        }
+
+        TaskCountMode mode;
+        try {
+            mode = TaskCountMode.valueOf(countMode);
+        } catch (IllegalArgumentException e) {
+            // Unknown count mode, keep the exact total
+            mode = TaskCountMode.exact;
+        }
+
         Sort sort = Sort.by(direction, sortField);
 
         // Create pageable object (page is 0-based for Spring)
         Pageable pageable = PageRequest.of(page - 1, limit, sort);
 
         // Get tasks with filters
-        Page<Task> tasksPage = taskService.findTasks(status, priority, labels, start, end, search, pageable);
-        if (tasksPage == null) {
-            tasksPage = Page.empty(pageable);
+        Slice<TaskRow> tasksSlice = taskService.listTasks(filter, pageable, mode);
+        if (tasksSlice == null) {
+            tasksSlice = Page.empty(pageable);
         }
         // Convert to DTOs
-        List<TaskDTO> taskDTOs = tasksPage.getContent().stream()
-                .map(TaskDTO::fromEntity)
+        List<TaskDTO> taskDTOs = tasksSlice.getContent().stream()
+                .map(TaskDTO::fromRow)
                 .collect(Collectors.toList());
 
         // Create response
         TaskListResponseDTO response = TaskListResponseDTO.builder()
                 .tasks(taskDTOs)
-                .total(tasksPage.getTotalElements())
+                .total(tasksSlice instanceof Page<TaskRow> tasksPage ? tasksPage.getTotalElements() : null)
                 .page(page)
                 .limit(limit)
+                .countMode(mode.name())
+                .hasNext(tasksSlice.hasNext())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    private TaskListResponseDTO listTasksAfter(TaskFilter filter, String token, String sortField,
+            Sort.Direction direction, int limit) {
+        if (TaskSpecifications.RELEVANCE.equals(sortField)) {
+            // Ranks are not stable keys, cursors page by creation time instead
+            sortField = "createdAt";
+        }
+        TaskCursor cursor = token != null ? decodeCursor(token) : TaskCursor.first(sortField, direction);
+        if (!cursor.getSortField().equals(sortField) || cursor.getDirection() != direction) {
+            // A cursor is only valid for the ordering it was issued for
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+
+        Slice<TaskRow> tasksSlice = taskService.listTasks(filter, cursor, limit);
+        List<TaskRow> rows = tasksSlice.getContent();
+        String nextCursor = tasksSlice.hasNext() ? cursor.after(rows.get(rows.size() - 1)).encode() : null;
+
+        return TaskListResponseDTO.builder()
+                .tasks(rows.stream().map(TaskDTO::fromRow).collect(Collectors.toList()))
+                .limit(limit)
+                .hasNext(tasksSlice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String listETag(long version) {
+        return "\"tasks-" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * Task version, followed by a hash of its labels' names and colors when it has labels:
+     * renaming or recoloring a label changes the response but not the task version.
+     * Labels are hashed as in the collection version.
+     */
+    private static String taskETag(TaskRow task) {
+        if (task.getLabels() == null || task.getLabels().isEmpty()) {
+            return "\"" + task.getVersion() + "\"";
+        }
+        long labels = task.getLabels().stream()
+                .mapToLong(label -> Objects.hash(label.getId(), label.getName(), label.getColor()))
+                .sum();
+        return "\"" + task.getVersion() + "-" + Long.toHexString(labels) + "\"";
+    }
+
+    /**
+     * Version named by an If-Match header, or {@code null} when the header is absent or
+     * matches any version. Only the version part of a task ETag counts: label renames
+     * do not conflict with task updates.
+     *
+     * @throws TaskVersionMismatchException if the header names no version, which no task can match
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses the strong comparison, a weak tag never matches
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new TaskVersionMismatchException();
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int labels = value.indexOf('-');
+        try {
+            return Long.parseLong(labels > 0 ? value.substring(0, labels) : value);
+        } catch (NumberFormatException e) {
+            throw new TaskVersionMismatchException();
+        }
+    }
+
+    private static Instant updatedAt(TaskRow task) {
+        return task.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private TaskCursor decodeCursor(String token) {
+        try {
+            return TaskCursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+    }
+
+    @Operation(
+            summary = "List task changes",
+            description = "Get the tasks created or updated and the IDs of the tasks deleted since a watermark. "
+                    + "Start without a watermark, then pass back the watermark of each response"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved task changes",
+                    content = @Content(schema = @Schema(implementation = TaskChangesResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid watermark",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<TaskChangesResponseDTO> listTaskChanges(
+            @Parameter(description = "Watermark returned by the previous call; omit it for a full sync")
+            @RequestParam(required = false) String since,
+
+            @Parameter(description = "Maximum number of changed and deleted tasks to return", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        limit = Math.max(1, Math.min(100, limit));
+
+        TaskCursor watermark = since != null
+                ? decodeCursor(since)
+                : TaskCursor.first(CHANGES_SORT_FIELD, Sort.Direction.ASC);
+        if (!watermark.getSortField().equals(CHANGES_SORT_FIELD) || watermark.getDirection() != Sort.Direction.ASC) {
+            // A list cursor is not a watermark
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+
+        TaskChanges changes = taskService.findChanges(watermark, limit);
+        TaskChangesResponseDTO response = TaskChangesResponseDTO.builder()
+                .tasks(changes.getTasks().stream().map(TaskDTO::fromRow).collect(Collectors.toList()))
+                .deletedIds(changes.getDeletedIds())
+                .watermark(changes.getWatermark().encode())
+                .hasMore(changes.isHasMore())
+                .resync(changes.isResync())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Stream task changes",
+            description = "Server-sent events for every committed task change: created, updated, toggled or deleted, "
+                    + "each with the task ID. A resync event means changes were dropped and the tasks should be listed again"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream opened",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents() {
+        return taskChangeFeed.subscribe();
+    }
+
+    @Operation(
+            summary = "Export tasks",
+            description = "Download every task matching the filters, in ID order, as newline-delimited JSON "
+                    + "or CSV. Rows are streamed as they are read, so exports of any size are supported"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tasks exported",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @GetMapping("/export")
+    public void exportTasks(
+            @Parameter(description = "Export file format", schema = @Schema(allowableValues = {"ndjson", "csv"}))
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+
+            @ParameterObject TaskFilterDTO filterDTO,
+
+            HttpServletResponse response) throws IOException {
+        TaskFileFormat fileFormat;
+        try {
+            fileFormat = TaskFileFormat.valueOf(format);
+        } catch (IllegalArgumentException e) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        TaskFilter filter = filterDTO.toFilter();
+
+        response.setContentType(fileFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileFormat.fileName()).build().toString());
+
+        // Written straight to the response, a chunk at a time, instead of building a body
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        fileFormat.writeHeader(out);
+        taskService.exportTasks(filter, rows -> {
+            try {
+                for (TaskRow row : rows) {
+                    fileFormat.writeTask(out, TaskDTO.fromRow(row), objectMapper);
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    @Operation(
+            summary = "Import tasks",
+            description = "Create tasks from a newline-delimited JSON or CSV request body, read as it arrives. "
+                    + "Labels are given by ID or by name. Invalid lines are reported and skipped; the others are "
+                    + "imported in batches, so an import stopped midway keeps the batches already imported"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Import finished",
+                    content = @Content(schema = @Schema(implementation = TaskImportResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unreadable file, such as a CSV header without a title column",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<TaskImportResponseDTO> importTasks(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        TaskFileFormat fileFormat = TaskFileFormat.forContentType(contentType)
+                .orElseThrow(() -> new BizException(DomainCode.INVALID_INPUT));
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        Iterator<TaskImportLine> lines;
+        try {
+            lines = fileFormat.read(new BufferedReader(new InputStreamReader(request.getInputStream(), charset)),
+                    objectMapper);
+        } catch (IllegalArgumentException e) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        TaskImportResult result = taskService.importTasks(lines);
+
+        TaskImportResponseDTO response = TaskImportResponseDTO.builder()
+                .importedCount(result.getImported())
+                .failedCount(result.getFailed())
+                .errors(result.getErrors().stream()
+                        .map(error -> new TaskImportErrorDTO(error.getLineNumber(), error.getMessage()))
+                        .collect(Collectors.toList()))
                 .build();
 
         return ResponseEntity.ok(response);
@@ -163,6 +497,45 @@ public class TaskController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(
+            summary = "Batch create tasks",
+            description = "Create up to 1000 tasks in a single request; either all of them are created or none"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Tasks successfully created",
+                    content = @Content(schema = @Schema(implementation = BatchCreateResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request parameters",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchCreateResponseDTO> batchCreateTasks(
+            @Parameter(description = "Tasks to create", required = true)
+            @Valid @RequestBody BatchCreateRequestDTO batchCreateRequestDTO) {
+        List<Task> createdTasks = taskService.createTasks(batchCreateRequestDTO.getTasks());
+
+        List<TaskDTO> taskDTOs = createdTasks.stream()
+                .map(TaskDTO::fromEntity)
+                .collect(Collectors.toList());
+
+        BatchCreateResponseDTO response = BatchCreateResponseDTO.builder()
+                .tasks(taskDTOs)
+                .createdCount(taskDTOs.size())
+                .build();
+
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
     @Operation(
             summary = "Get task by ID",
             description = "Get details of a specific task by its ID"
@@ -187,11 +560,16 @@ public class TaskController {
     @GetMapping("/{id}")
     public ResponseEntity<TaskResponseDTO> getTaskById(
             @Parameter(description = "Task ID", required = true, example = "1")
-            @PathVariable Long id) {
-        Task task = taskService.getTaskById(id);
+            @PathVariable Long id,
+
+            WebRequest webRequest) {
+        TaskRow task = taskService.getTaskSnapshot(id);
+        if (webRequest.checkNotModified(taskETag(task), updatedAt(task).toEpochMilli())) {
+            return null;
+        }
 
         TaskResponseDTO response = TaskResponseDTO.builder()
-                .task(TaskDTO.fromEntity(task))
+                .task(TaskDTO.fromRow(task))
                 .build();
 
         return ResponseEntity.ok(response);
@@ -199,7 +577,9 @@ public class TaskController {
 
     @Operation(
             summary = "Update task",
-            description = "Update a specific task by its ID"
+            description = "Update a specific task by its ID. With an If-Match header naming the version read, "
+                    + "as returned in the ETag header or the version field, the update applies only if the task "
+                    + "is still at that version"
     )
     @ApiResponses({
             @ApiResponse(
@@ -217,6 +597,16 @@ public class TaskController {
                     description = "Task not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Task modified concurrently",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Task no longer at the version named by If-Match",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized",
@@ -229,14 +619,19 @@ public class TaskController {
             @PathVariable Long id,
 
             @Parameter(description = "Updated task details", required = true)
-            @RequestBody TaskUpdateDTO taskUpdateDTO) {
-        Task updatedTask = taskService.updateTask(id, taskUpdateDTO);
+            @RequestBody TaskUpdateDTO taskUpdateDTO,
+
+            @Parameter(description = "Version the task must be at, as a quoted ETag", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        TaskRow updatedTask = taskService.updateTask(id, taskUpdateDTO, expectedVersion(ifMatch));
 
         TaskResponseDTO response = TaskResponseDTO.builder()
-                .task(TaskDTO.fromEntity(updatedTask))
+                .task(TaskDTO.fromRow(updatedTask))
                 .build();
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .eTag(taskETag(updatedTask))
+                .body(response);
     }
 
     @Operation(
@@ -270,7 +665,12 @@ public class TaskController {
 
     @Operation(
             summary = "Batch update tasks",
-            description = "Update multiple tasks in a single request"
+            description = "Update multiple tasks. Items that are invalid or name missing tasks are skipped and "
+                    + "reported in results; the others are applied. By default the batch is applied in a single "
+                    + "transaction. In partitioned mode a large batch is split into ranges of task ids applied "
+                    + "concurrently, each in its own transaction: this mode is NOT atomic. Partitions may commit "
+                    + "while others fail, whose items are then reported as failed, and other requests may see "
+                    + "the batch partly applied"
     )
     @ApiResponses({
             @ApiResponse(
@@ -292,21 +692,100 @@ public class TaskController {
     @PatchMapping("/batch")
     public ResponseEntity<BatchUpdateResponseDTO> batchUpdateTasks(
             @Parameter(description = "Batch update request with task IDs and update details", required = true)
-            @Valid @RequestBody BatchUpdateRequestDTO batchUpdateRequestDTO) {
-        List<Task> updatedTasks = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+            @Valid @RequestBody BatchUpdateRequestDTO batchUpdateRequestDTO,
+
+            @Parameter(description = "Execution mode; partitioned is faster on large batches but not atomic",
+                    schema = @Schema(allowableValues = {"atomic", "partitioned"}))
+            @RequestParam(required = false, defaultValue = "atomic") String mode) {
+        TaskBatchResult result;
+        if ("atomic".equals(mode)) {
+            result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+        } else if ("partitioned".equals(mode)) {
+            result = taskBatchPartitioner.batchUpdateTasks(batchUpdateRequestDTO);
+        } else {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
 
-        List<TaskDTO> taskDTOs = updatedTasks.stream()
+        List<TaskDTO> taskDTOs = result.getUpdated().stream()
                 .map(TaskDTO::fromEntity)
                 .collect(Collectors.toList());
 
         BatchUpdateResponseDTO response = BatchUpdateResponseDTO.builder()
                 .tasks(taskDTOs)
                 .updatedCount(taskDTOs.size())
+                .results(result.getItems().stream()
+                        .map(BatchItemResultDTO::fromItem)
+                        .collect(Collectors.toList()))
                 .build();
 
         return ResponseEntity.ok(response);
     }
 
+    @Operation(
+            summary = "Bulk update tasks by filter",
+            description = "Apply the same changes to every task matching the filters, which work as in the "
+                    + "task list except that unknown values are rejected. Runs as set-based statements in one "
+                    + "transaction; at least one filter is required"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching tasks updated",
+                    content = @Content(schema = @Schema(implementation = BulkMutationResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No filter given, an unknown filter value, or invalid changes",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @PatchMapping("/bulk")
+    public ResponseEntity<BulkMutationResponseDTO> bulkUpdateTasks(
+            @ParameterObject TaskFilterDTO filterDTO,
+
+            @Parameter(description = "Changes to apply", required = true)
+            @RequestBody BulkUpdateRequestDTO bulkUpdateRequestDTO) {
+        TaskFilter filter = filterDTO.toStrictFilter();
+        int updated = taskService.bulkUpdateTasks(filter, bulkUpdateRequestDTO);
+        return ResponseEntity.ok(BulkMutationResponseDTO.builder().affectedCount(updated).build());
+    }
+
+    @Operation(
+            summary = "Bulk delete tasks by filter",
+            description = "Delete every task matching the filters, which work as in the task list except that "
+                    + "unknown values are rejected. Runs as set-based statements in one transaction; at least one "
+                    + "filter is required"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching tasks deleted",
+                    content = @Content(schema = @Schema(implementation = BulkMutationResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No filter given or an unknown filter value",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class))
+            )
+    })
+    @DeleteMapping("/bulk")
+    public ResponseEntity<BulkMutationResponseDTO> bulkDeleteTasks(
+            @ParameterObject TaskFilterDTO filterDTO) {
+        TaskFilter filter = filterDTO.toStrictFilter();
+        int deleted = taskService.bulkDeleteTasks(filter);
+        return ResponseEntity.ok(BulkMutationResponseDTO.builder().affectedCount(deleted).build());
+    }
+
     @Operation(
             summary = "Toggle task completion",
             description = "Toggle the completion status of a task"
@@ -332,10 +811,10 @@ public class TaskController {
     public ResponseEntity<TaskResponseDTO> toggleTaskCompletion(
             @Parameter(description = "Task ID", required = true, example = "1")
             @PathVariable Long id) {
-        Task updatedTask = taskService.toggleTaskCompletion(id);
+        TaskRow updatedTask = taskService.toggleTaskCompletion(id);
 
         TaskResponseDTO response = TaskResponseDTO.builder()
-                .task(TaskDTO.fromEntity(updatedTask))
+                .task(TaskDTO.fromRow(updatedTask))
                 .build();
 
         return ResponseEntity.ok(response);
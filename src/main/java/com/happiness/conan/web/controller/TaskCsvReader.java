@@ -0,0 +1,201 @@
+package com.happiness.conan.web.controller;
+
+import com.happiness.conan.service.TaskImportLine;
+import com.happiness.conan.web.dto.LabelDTO;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Reads tasks from CSV as described by RFC 4180, one record at a time. Columns are
+ * matched by their header name, in any order, and unknown columns are ignored, so an
+ * export reads back as is. Labels are listed by id in {@code labelIds} or by name in
+ * {@code labels}, separated by {@link TaskFileFormat#LABEL_SEPARATOR}.
+ */
+class TaskCsvReader implements Iterator<TaskImportLine> {
+
+    private static final int END = -1;
+
+    private final Reader in;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    // Line the next record starts on, and the character read ahead of it
+    private long lineNumber = 1;
+    private int next;
+
+    /**
+     * Reads the header row.
+     *
+     * @throws IllegalArgumentException if the header has no {@code title} column
+     */
+    TaskCsvReader(Reader in) throws IOException {
+        this.in = in;
+        this.next = in.read();
+
+        List<String> header = next == END ? List.of() : readRecord();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IllegalArgumentException("CSV header has no title column");
+        }
+        skipBlankLines();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != END;
+    }
+
+    @Override
+    public TaskImportLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        long recordLine = lineNumber;
+        try {
+            List<String> fields = readRecord();
+            skipBlankLines();
+            if (fields.size() != columns.size()) {
+                return TaskImportLine.failed(recordLine,
+                        "Expected " + columns.size() + " fields, found " + fields.size());
+            }
+            return TaskImportLine.of(recordLine, toTask(fields));
+        } catch (IllegalArgumentException e) {
+            return TaskImportLine.failed(recordLine, e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TaskCreateDTO toTask(List<String> fields) {
+        List<LabelDTO> labels = new ArrayList<>();
+        for (String id : split(field(fields, "labelIds"))) {
+            labels.add(LabelDTO.builder().id(parse(id, "label id", Long::valueOf)).build());
+        }
+        for (String name : split(field(fields, "labels"))) {
+            labels.add(LabelDTO.builder().name(name).build());
+        }
+
+        String dueDate = field(fields, "dueDate");
+        String isCompleted = field(fields, "isCompleted");
+        return TaskCreateDTO.builder()
+                .title(field(fields, "title"))
+                .description(field(fields, "description"))
+                .dueDate(dueDate == null ? null : parse(dueDate, "dueDate", LocalDateTime::parse))
+                .priority(field(fields, "priority"))
+                .isCompleted(isCompleted == null ? null : parseBoolean(isCompleted))
+                .labels(labels)
+                .build();
+    }
+
+    /**
+     * Value of a column, or {@code null} when it is empty or the file lacks the column.
+     */
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(TaskFileFormat.LABEL_SEPARATOR)) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+
+    private static <T> T parse(String value, String column, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value.trim())) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value.trim())) {
+            return false;
+        }
+        throw new IllegalArgumentException("Invalid isCompleted: " + value);
+    }
+
+    /**
+     * Reads the fields of the record starting at the read-ahead character, up to and
+     * including its line break. Quoted fields may hold separators, doubled quotes and
+     * line breaks.
+     *
+     * @throws IllegalArgumentException if a quoted field is not closed before the input
+     *                                  ends; the rest of the input has been read by then
+     */
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = next;
+            next = in.read();
+            if (quoted) {
+                if (c == END) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                if (c == '"' && next == '"') {
+                    field.append('"');
+                    next = in.read();
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == END) {
+                if (c == '\n') {
+                    lineNumber++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private void skipBlankLines() throws IOException {
+        while (next == '\r' || next == '\n') {
+            if (next == '\n') {
+                lineNumber++;
+            }
+            next = in.read();
+        }
+    }
+}
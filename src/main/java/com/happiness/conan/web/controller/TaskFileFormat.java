@@ -0,0 +1,130 @@
+package com.happiness.conan.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.happiness.conan.service.TaskImportLine;
+import com.happiness.conan.web.dto.TaskDTO;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * File formats of task exports and imports: newline-delimited JSON, one task per line,
+ * or CSV with a header row. Constants are lowercase since they are parsed from request
+ * parameters.
+ */
+enum TaskFileFormat {
+
+    ndjson("application/x-ndjson") {
+        @Override
+        void writeHeader(Writer out) {
+        }
+
+        @Override
+        void writeTask(Writer out, TaskDTO task, ObjectMapper objectMapper) throws IOException {
+            out.write(objectMapper.writeValueAsString(task));
+            out.write('\n');
+        }
+
+        @Override
+        Iterator<TaskImportLine> read(BufferedReader in, ObjectMapper objectMapper) throws IOException {
+            return new TaskNdjsonReader(in, objectMapper);
+        }
+    },
+
+    csv("text/csv") {
+        @Override
+        void writeHeader(Writer out) throws IOException {
+            out.write(String.join(",", CSV_COLUMNS));
+            out.write("\r\n");
+        }
+
+        @Override
+        void writeTask(Writer out, TaskDTO task, ObjectMapper objectMapper) throws IOException {
+            String labelIds = task.getLabels().stream()
+                    .map(label -> String.valueOf(label.getId()))
+                    .collect(Collectors.joining(LABEL_SEPARATOR));
+            out.write(String.join(",",
+                    String.valueOf(task.getId()),
+                    quote(task.getTitle()),
+                    quote(task.getDescription()),
+                    format(task.getDueDate()),
+                    task.getPriority(),
+                    String.valueOf(task.isCompleted()),
+                    labelIds,
+                    format(task.getCreatedAt()),
+                    format(task.getUpdatedAt())));
+            out.write("\r\n");
+        }
+
+        @Override
+        Iterator<TaskImportLine> read(BufferedReader in, ObjectMapper objectMapper) throws IOException {
+            return new TaskCsvReader(in);
+        }
+    };
+
+    /**
+     * CSV columns, in order. Labels are listed by id, separated by {@link #LABEL_SEPARATOR}.
+     */
+    static final List<String> CSV_COLUMNS = List.of(
+            "id", "title", "description", "dueDate", "priority", "isCompleted", "labelIds", "createdAt", "updatedAt");
+
+    static final String LABEL_SEPARATOR = ";";
+
+    private final String contentType;
+
+    TaskFileFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    String contentType() {
+        return contentType;
+    }
+
+    String fileName() {
+        return "tasks." + name();
+    }
+
+    static Optional<TaskFileFormat> forContentType(MediaType contentType) {
+        return Arrays.stream(values())
+                .filter(format -> MediaType.parseMediaType(format.contentType).isCompatibleWith(contentType))
+                .findFirst();
+    }
+
+    abstract void writeHeader(Writer out) throws IOException;
+
+    abstract void writeTask(Writer out, TaskDTO task, ObjectMapper objectMapper) throws IOException;
+
+    /**
+     * Lines of an import file, parsed as they are iterated.
+     *
+     * @throws IllegalArgumentException if the file cannot be read at all
+     */
+    abstract Iterator<TaskImportLine> read(BufferedReader in, ObjectMapper objectMapper) throws IOException;
+
+    private static String format(LocalDateTime value) {
+        return value == null ? "" : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value);
+    }
+
+    /**
+     * Quotes a field as RFC 4180 requires: when it holds a separator, a quote or a line
+     * break, with embedded quotes doubled.
+     */
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r')) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,65 @@
+package com.happiness.conan.web.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.happiness.conan.service.TaskImportLine;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads tasks from newline-delimited JSON, one object per line in the shape of a task
+ * creation request. Unknown properties are ignored, so an export reads back as is;
+ * blank lines are skipped.
+ */
+class TaskNdjsonReader implements Iterator<TaskImportLine> {
+
+    private final BufferedReader in;
+    private final ObjectMapper objectMapper;
+
+    private long lineNumber;
+    private String line;
+
+    TaskNdjsonReader(BufferedReader in, ObjectMapper objectMapper) throws IOException {
+        this.in = in;
+        this.objectMapper = objectMapper;
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return line != null;
+    }
+
+    @Override
+    public TaskImportLine next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        long current = lineNumber;
+        TaskImportLine result;
+        try {
+            result = TaskImportLine.of(current, objectMapper.readValue(line, TaskCreateDTO.class));
+        } catch (JsonProcessingException e) {
+            result = TaskImportLine.failed(current, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        try {
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result;
+    }
+
+    private void advance() throws IOException {
+        do {
+            line = in.readLine();
+            lineNumber++;
+        } while (line != null && line.isBlank());
+    }
+}
@@ -0,0 +1,25 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Request for creating multiple tasks at once")
+public class BatchCreateRequestDTO {
+    @Schema(description = "Tasks to create, at most 1000")
+    @NotEmpty
+    @Size(max = 1000)
+    @Valid
+    private List<TaskCreateDTO> tasks;
+}
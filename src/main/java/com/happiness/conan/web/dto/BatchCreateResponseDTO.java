@@ -0,0 +1,22 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Response after creating multiple tasks")
+public class BatchCreateResponseDTO {
+    @Schema(description = "Created tasks, in request order")
+    private List<TaskDTO> tasks;
+
+    @Schema(description = "Number of tasks created", example = "5")
+    private int createdCount;
+}
@@ -0,0 +1,32 @@
+package com.happiness.conan.web.dto;
+
+import com.happiness.conan.service.TaskBatchResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Outcome of one item of a batch request")
+public class BatchItemResultDTO {
+    @Schema(description = "Task ID", example = "1")
+    private Long id;
+
+    @Schema(description = "Outcome of the item", example = "updated", allowableValues = {"updated", "not_found", "invalid", "conflict", "failed"})
+    private String status;
+
+    @Schema(description = "Why the item was not applied", example = "Task not found")
+    private String message;
+
+    public static BatchItemResultDTO fromItem(TaskBatchResult.Item item) {
+        return BatchItemResultDTO.builder()
+                .id(item.getId())
+                .status(item.getStatus().name())
+                .message(item.getMessage())
+                .build();
+    }
+}
@@ -32,5 +32,8 @@ public class BatchUpdateRequestDTO {
         @Schema(description = "Updated task details", required = true)
         @NotNull
         private TaskUpdateDTO task;
+
+        @Schema(description = "Version the task must be at; the item is reported as a conflict otherwise", example = "3")
+        private Long version;
     }
 }
\ No newline at end of file
@@ -19,4 +19,7 @@ public class BatchUpdateResponseDTO {
 
     @Schema(description = "Number of tasks successfully updated", example = "5")
     private int updatedCount;
-}
\ No newline at end of file
+
+    @Schema(description = "Outcome of each item, in request order")
+    private List<BatchItemResultDTO> results;
+}
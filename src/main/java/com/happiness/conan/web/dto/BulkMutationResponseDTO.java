@@ -0,0 +1,17 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Response after updating or deleting the tasks matching a filter")
+public class BulkMutationResponseDTO {
+    @Schema(description = "Number of tasks updated or deleted", example = "120")
+    private int affectedCount;
+}
@@ -0,0 +1,34 @@
+package com.happiness.conan.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Changes applied to every task matching a filter; omitted fields are left unchanged")
+public class BulkUpdateRequestDTO {
+    @JsonProperty("isCompleted")
+    @Schema(description = "New completion status", example = "true")
+    private Boolean isCompleted;
+
+    @Schema(description = "New priority level", example = "low", allowableValues = {"low", "medium", "high"})
+    private String priority;
+
+    @Schema(description = "New due date", example = "2025-04-15T12:00:00")
+    private LocalDateTime dueDate;
+
+    @Schema(description = "IDs of labels to add; unknown IDs are ignored", example = "[1, 3]")
+    private List<Long> addLabelIds;
+
+    @Schema(description = "IDs of labels to remove", example = "[2]")
+    private List<Long> removeLabelIds;
+}
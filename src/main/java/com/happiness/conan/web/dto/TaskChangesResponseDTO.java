@@ -0,0 +1,33 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Tasks changed since a watermark; applying the same change twice is harmless")
+public class TaskChangesResponseDTO {
+    @Schema(description = "Tasks created or updated since the watermark, oldest change first")
+    private List<TaskDTO> tasks;
+
+    @Schema(description = "IDs of the tasks deleted since the watermark")
+    private List<Long> deletedIds;
+
+    @Schema(description = "Opaque watermark to pass as since on the next call",
+            example = "dXBkYXRlZEF0fEFTQ3wyMDI1LTAzLTE0VDA2OjA4OjQ3fDU")
+    private String watermark;
+
+    @Schema(description = "Whether more changes are waiting; if so, call again right away", example = "false")
+    private boolean hasMore;
+
+    @Schema(description = "Whether the watermark was older than deleted tasks are kept; if so, these changes start "
+            + "a full sync and local tasks it never reports should be dropped", example = "false")
+    private boolean resync;
+}
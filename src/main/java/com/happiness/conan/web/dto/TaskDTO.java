@@ -2,6 +2,7 @@ package com.happiness.conan.web.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskRow;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.Collections;
 import lombok.AllArgsConstructor;
@@ -47,6 +48,10 @@ public class TaskDTO {
     @Schema(description = "Task last update timestamp", example = "2025-03-14T06:20:45")
     private LocalDateTime updatedAt;
 
+    @Schema(description = "Version of the task, bumped by every change; send it in If-Match to update only that version",
+            example = "3")
+    private Long version;
+
     public static TaskDTO fromEntity(Task task) {
         if (task == null) {
             return null;
@@ -64,6 +69,26 @@ public class TaskDTO {
                         Collections.emptyList())
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
+                .version(task.getVersion())
+                .build();
+    }
+
+    public static TaskDTO fromRow(TaskRow row) {
+        if (row == null) {
+            return null;
+        }
+
+        return TaskDTO.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .dueDate(row.getDueDate())
+                .priority(row.getPriority() != null ? row.getPriority().name() : null)
+                .isCompleted(row.isCompleted())
+                .labels(row.getLabels().stream().map(LabelDTO::fromEntity).collect(Collectors.toList()))
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .version(row.getVersion())
                 .build();
     }
-}
\ No newline at end of file
+}
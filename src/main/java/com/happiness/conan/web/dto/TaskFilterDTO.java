@@ -0,0 +1,92 @@
+package com.happiness.conan.web.dto;
+
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelMode;
+import com.happiness.conan.exception.BizException;
+import com.happiness.conan.exception.DomainCode;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Task filter query parameters, shared by the endpoints that select tasks the way the task list does.
+ */
+@Data
+public class TaskFilterDTO {
+
+    private static final Set<String> STATUSES = Set.of("all", "active", "completed");
+
+    @Parameter(description = "Filter by task status", schema = @Schema(allowableValues = {"all", "active", "completed"}))
+    private String status;
+
+    @Parameter(description = "Filter by task priority", schema = @Schema(allowableValues = {"low", "medium", "high"}))
+    private String priority;
+
+    @Parameter(description = "Filter by label IDs")
+    private List<Long> labels;
+
+    @Parameter(description = "How label IDs combine: tasks with any, all, or none of them",
+            schema = @Schema(allowableValues = {"any", "all", "none"}, defaultValue = "all"))
+    private String labelMode = "all";
+
+    @Parameter(description = "Filter by start date (format: yyyy-MM-dd)", example = "2025-03-01")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate start;
+
+    @Parameter(description = "Filter by end date (format: yyyy-MM-dd)", example = "2025-03-31")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate end;
+
+    @Parameter(description = "Search term for task title/description")
+    private String search;
+
+    @Parameter(description = "Match the search term by similarity, tolerating typos and partial words; "
+            + "needs the trigram search mode")
+    private boolean fuzzy;
+
+    @Parameter(description = "Similarity threshold for fuzzy search, between 0 and 1", example = "0.6")
+    private Double similarity;
+
+    /**
+     * Builds the filter, rejecting unknown status, priority and label mode values instead
+     * of ignoring them. Used where a mistyped filter would select more tasks than meant.
+     *
+     * @throws BizException with {@link DomainCode#INVALID_INPUT} on an unknown value
+     */
+    public TaskFilter toStrictFilter() {
+        if (status != null && !STATUSES.contains(status)) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        if (priority != null && Arrays.stream(Task.Priority.values()).noneMatch(p -> p.name().equals(priority))) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        if (labelMode != null && Arrays.stream(TaskLabelMode.values()).noneMatch(m -> m.name().equals(labelMode))) {
+            throw new BizException(DomainCode.INVALID_INPUT);
+        }
+        return toFilter();
+    }
+
+    public TaskFilter toFilter() {
+        TaskLabelMode labelCombination = TaskLabelMode.all;
+        if (labelMode != null) {
+            try {
+                labelCombination = TaskLabelMode.valueOf(labelMode);
+            } catch (IllegalArgumentException e) {
+                // Unknown label mode, keep requiring every label
+            }
+        }
+
+        return TaskFilter.of(status, priority, labels, start, end, search).toBuilder()
+                .labelMode(labelCombination)
+                .fuzzy(fuzzy)
+                .similarity(similarity)
+                .build();
+    }
+}
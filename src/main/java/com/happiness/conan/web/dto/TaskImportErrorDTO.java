@@ -0,0 +1,20 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "A rejected line of an import file")
+public class TaskImportErrorDTO {
+    @Schema(description = "Line number, counting the CSV header as line 1", example = "42")
+    private long line;
+
+    @Schema(description = "Why the line was rejected", example = "Unknown label: Urgent")
+    private String message;
+}
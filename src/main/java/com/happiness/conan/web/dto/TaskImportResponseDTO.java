@@ -0,0 +1,25 @@
+package com.happiness.conan.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Response after importing tasks")
+public class TaskImportResponseDTO {
+    @Schema(description = "Number of tasks created", example = "498")
+    private int importedCount;
+
+    @Schema(description = "Number of lines rejected", example = "2")
+    private int failedCount;
+
+    @Schema(description = "Rejected lines, in file order; only the first ones when many lines fail")
+    private List<TaskImportErrorDTO> errors;
+}
@@ -1,5 +1,6 @@
 package com.happiness.conan.web.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,12 +18,27 @@ public class TaskListResponseDTO {
     @Schema(description = "List of tasks")
     private List<TaskDTO> tasks;
 
-    @Schema(description = "Total number of tasks matching the filter criteria", example = "42")
-    private long total;
+    @Schema(description = "Total number of tasks matching the filter criteria, approximate in estimate mode "
+            + "and omitted in cursor mode or when the count mode is none", example = "42")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long total;
 
-    @Schema(description = "Current page number", example = "1")
-    private int page;
+    @Schema(description = "Current page number, omitted in cursor mode", example = "1")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer page;
 
     @Schema(description = "Number of tasks per page", example = "10")
     private int limit;
+
+    @Schema(description = "Count mode used to compute the total, omitted in cursor mode", example = "exact")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String countMode;
+
+    @Schema(description = "Whether another page follows this one", example = "true")
+    private boolean hasNext;
+
+    @Schema(description = "Opaque cursor for the next page in cursor mode, omitted on the last page",
+            example = "Y3JlYXRlZEF0fERFU0N8MjAyNS0wMy0xNFQwNjowODo0N3w1")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
\ No newline at end of file
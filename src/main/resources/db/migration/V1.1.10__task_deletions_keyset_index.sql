@@ -0,0 +1,5 @@
+-- (deleted_at, task_id) keyset paging tombstones alongside the changes feed and range-deleting them past the retention
+CREATE INDEX idx_task_deletions_deleted_at_task_id ON task_deletions (deleted_at, task_id);
+
+-- Superseded by the composite index above
+DROP INDEX idx_task_deletions_deleted_at;
@@ -0,0 +1,8 @@
+-- Composite (sort key, id) indexes serving keyset pagination on every sortable field
+CREATE INDEX idx_tasks_created_at_id ON tasks (created_at, id);
+CREATE INDEX idx_tasks_due_date_id ON tasks (due_date, id);
+CREATE INDEX idx_tasks_priority_id ON tasks (priority, id);
+
+-- Superseded by the composite indexes above
+DROP INDEX idx_tasks_due_date;
+DROP INDEX idx_tasks_priority;
@@ -0,0 +1,2 @@
+-- Label-first lookups for label filters; the (task_id, label_id) primary key only serves task-first ones
+CREATE INDEX idx_task_labels_label_task ON task_labels (label_id, task_id);
@@ -0,0 +1,10 @@
+-- (updated_at, id) keyset serving the changes feed
+CREATE INDEX idx_tasks_updated_at_id ON tasks (updated_at, id);
+
+-- Deletion log, so the changes feed can report deleted tasks; task ids are never reused
+CREATE TABLE task_deletions (
+                                task_id BIGINT PRIMARY KEY,
+                                deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_task_deletions_deleted_at ON task_deletions (deleted_at);
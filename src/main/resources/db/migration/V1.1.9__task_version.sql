@@ -0,0 +1,2 @@
+-- Optimistic locking: every write bumps the version, clients send it back in If-Match
+ALTER TABLE tasks ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
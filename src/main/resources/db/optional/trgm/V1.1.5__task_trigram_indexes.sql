@@ -0,0 +1,5 @@
+-- Trigram indexes serving case-insensitive substring and similarity search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_tasks_title_trgm ON tasks USING GIN (lower(title) gin_trgm_ops);
+CREATE INDEX idx_tasks_description_trgm ON tasks USING GIN (lower(description) gin_trgm_ops);
@@ -0,0 +1,138 @@
+package com.happiness.conan.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lists tasks from 1k concurrent clients and reports throughput and p99 latency. Run it
+ * with and without the request limit and compare: {@code -Dbenchmark.request-limit=on}
+ * or {@code -Dbenchmark.request-limit=off}. The page cache is off, so every request
+ * queries the database.
+ */
+@EnabledIfSystemProperty(named = "benchmark.request-limit", matches = "on|off")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:threadsbench",
+        "conan.page-cache.enabled=false",
+        "conan.request-limit.enabled=${benchmark.request-limit-enabled:false}",
+        // Measures queueing, not load shedding
+        "conan.request-limit.timeout=10m"})
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RequestLimitBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestLimitBenchmarkIT.class);
+
+    private static final int TASKS = 10_000;
+    private static final int CLIENTS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 20;
+
+    static {
+        // Read by the placeholders above, before the context starts
+        System.setProperty("benchmark.request-limit-enabled",
+                String.valueOf("on".equals(System.getProperty("benchmark.request-limit"))));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void createDataset() {
+        jdbcTemplate.execute("INSERT INTO tasks"
+                + " (id, title, description, priority, is_completed, created_at, updated_at, version)"
+                + " SELECT X, 'Task ' || X, 'Description of task ' || X, 'medium', MOD(X, 2) = 0,"
+                + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 FROM SYSTEM_RANGE(1, " + TASKS + ")");
+    }
+
+    @Test
+    @DisplayName("1k concurrent clients listing tasks should all be answered")
+    void concurrentClients_shouldAllBeAnswered() throws Exception {
+        // Given
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int client = 0; client < CLIENTS; client++) {
+            int first = client * REQUESTS_PER_CLIENT;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long requestStart = System.nanoTime();
+                        if (!listTasks(first + i)) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[first + i] = System.nanoTime() - requestStart;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        // When
+        long startNanos = System.nanoTime();
+        start.countDown();
+        clients.shutdown();
+        boolean finished = clients.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        // Then
+        Arrays.sort(latencies);
+        log.info("Request limit {}: {} requests in {} ms ({} requests/s), p50 {} ms, p99 {} ms, {} failed",
+                System.getProperty("benchmark.request-limit"), latencies.length, elapsedNanos / 1_000_000,
+                latencies.length * 1_000_000_000L / elapsedNanos, latencies[latencies.length / 2] / 1_000_000,
+                latencies[latencies.length * 99 / 100] / 1_000_000, failures.get());
+        assertThat(finished).isTrue();
+        assertThat(failures.get()).isZero();
+    }
+
+    /**
+     * Lists a page of tasks, a different one per request, and reads the whole response.
+     */
+    private boolean listTasks(int request) {
+        int page = request % (TASKS / 20) + 1;
+        try {
+            URL url = URI.create("http://localhost:" + port + "/api/v1/tasks?limit=20&page=" + page).toURL();
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            try (InputStream body = connection.getResponseCode() == 200
+                    ? connection.getInputStream()
+                    : connection.getErrorStream()) {
+                if (body != null) {
+                    body.readAllBytes();
+                }
+            }
+            return connection.getResponseCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.happiness.conan.benchmark;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports 1M tasks over HTTP and checks that the server heap stays flat while rows
+ * stream out. Runs against its own in-memory H2 database, with
+ * {@code -Dbenchmark.export=true}; expect a few minutes.
+ */
+@EnabledIfSystemProperty(named = "benchmark.export", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:exportbench")
+@ActiveProfiles("test")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskExportBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskExportBenchmarkIT.class);
+
+    private static final int ROWS = 1_000_000;
+    private static final int SAMPLE_EVERY = 100_000;
+    // 1M exported tasks take several hundred MB as objects; a streamed export holds one chunk
+    private static final long MAX_HEAP_GROWTH = 64L * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    @BeforeAll
+    void createDataset() {
+        jdbcTemplate.execute("INSERT INTO tasks"
+                + " (id, title, description, priority, is_completed, created_at, updated_at, version)"
+                + " SELECT X, 'Task ' || X, 'Description of task ' || X, 'medium', MOD(X, 2) = 0,"
+                + " CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ndjson", "csv"})
+    @DisplayName("Exporting 1M tasks should stream every row without growing the heap")
+    void export_shouldStreamWithFlatHeap(String format) throws IOException {
+        // Given
+        long baseline = usedHeapAfterGc();
+        long peak = baseline;
+        HttpURLConnection connection = (HttpURLConnection) URI
+                .create("http://localhost:" + port + "/api/v1/tasks/export?format=" + format)
+                .toURL()
+                .openConnection();
+
+        // When
+        long start = System.nanoTime();
+        long samplingNanos = 0;
+        long lines = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            while (reader.readLine() != null) {
+                if (++lines % SAMPLE_EVERY == 0) {
+                    long sampleStart = System.nanoTime();
+                    peak = Math.max(peak, usedHeapAfterGc());
+                    samplingNanos += System.nanoTime() - sampleStart;
+                }
+            }
+        }
+        // Forced collections are not part of the export
+        long elapsedNanos = System.nanoTime() - start - samplingNanos;
+
+        // Then
+        long rows = "csv".equals(format) ? lines - 1 : lines;
+        log.info("{} export: {} rows in {} ms ({} rows/s), heap growth {} KB", format, rows,
+                elapsedNanos / 1_000_000, rows * 1_000_000_000L / elapsedNanos, (peak - baseline) / 1024);
+        assertThat(rows).isEqualTo(ROWS);
+        assertThat(peak - baseline).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private long usedHeapAfterGc() {
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
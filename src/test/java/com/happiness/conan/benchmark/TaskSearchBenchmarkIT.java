@@ -0,0 +1,119 @@
+package com.happiness.conan.benchmark;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Searches 1M tasks through the list endpoint in trigram mode and compares the
+ * latency with and without the trigram indexes. Needs a scratch PostgreSQL database
+ * with {@code pg_trgm} available, run with
+ * {@code -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/conan_bench -Dbenchmark.jdbc.user=admin
+ * -Dbenchmark.jdbc.password=admin}. The benchmark fills the tasks table and empties it afterwards.
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=${benchmark.jdbc.url}",
+        "spring.datasource.username=${benchmark.jdbc.user}",
+        "spring.datasource.password=${benchmark.jdbc.password}",
+        "spring.flyway.url=${benchmark.jdbc.url}",
+        "spring.flyway.user=${benchmark.jdbc.user}",
+        "spring.flyway.password=${benchmark.jdbc.password}",
+        "spring.jpa.show-sql=false",
+        "conan.search.mode=trigram",
+        "conan.page-cache.enabled=false"})
+@ActiveProfiles("dev")
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TaskSearchBenchmarkIT {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchBenchmarkIT.class);
+
+    private static final int ROWS = 1_000_000;
+    private static final int RUNS = 7;
+    private static final String SEARCH = "/api/v1/tasks?limit=20&sortBy=createdAt&search=tck-4242";
+    private static final String[] TRIGRAM_INDEXES = {
+            "CREATE INDEX idx_tasks_title_trgm ON tasks USING GIN (lower(title) gin_trgm_ops)",
+            "CREATE INDEX idx_tasks_description_trgm ON tasks USING GIN (lower(description) gin_trgm_ops)"};
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void createDataset() {
+        jdbcTemplate.execute("INSERT INTO tasks"
+                + " (id, title, description, priority, is_completed, created_at, updated_at, version)"
+                + " SELECT i, 'Task TCK-' || i || ' ' || md5(i::text),"
+                + " 'Description ' || md5((i * 7)::text) || ' ' || md5((i * 13)::text), 'medium', i % 2 = 0,"
+                + " now(), now(), 0 FROM generate_series(1, " + ROWS + ") AS i");
+        jdbcTemplate.execute("ANALYZE tasks");
+    }
+
+    @AfterAll
+    void dropDataset() {
+        jdbcTemplate.execute("DELETE FROM tasks WHERE id <= " + ROWS);
+    }
+
+    @Test
+    @DisplayName("Trigram indexes should beat the LIKE scan when searching through the list endpoint")
+    void trigramIndexShouldBeatSequentialScan() throws IOException {
+        // Given
+        long indexedNanos = medianNanos();
+
+        // When - the same predicate without its indexes
+        long scanNanos;
+        jdbcTemplate.execute("DROP INDEX idx_tasks_title_trgm");
+        jdbcTemplate.execute("DROP INDEX idx_tasks_description_trgm");
+        try {
+            scanNanos = medianNanos();
+        } finally {
+            for (String index : TRIGRAM_INDEXES) {
+                jdbcTemplate.execute(index);
+            }
+        }
+
+        // Then
+        log.info("Search over {} tasks: LIKE scan {} ms, trigram index {} ms", ROWS, scanNanos / 1_000_000,
+                indexedNanos / 1_000_000);
+        assertThat(indexedNanos).isLessThan(scanNanos);
+    }
+
+    private long medianNanos() throws IOException {
+        long[] timings = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + SEARCH)
+                    .toURL()
+                    .openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                body.readAllBytes();
+            }
+            timings[run] = System.nanoTime() - start;
+            assertThat(connection.getResponseCode()).isEqualTo(200);
+        }
+        Arrays.sort(timings);
+        return timings[RUNS / 2];
+    }
+}
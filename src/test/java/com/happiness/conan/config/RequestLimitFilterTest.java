@@ -0,0 +1,83 @@
+package com.happiness.conan.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestLimitFilterTest {
+
+    private RequestLimitProperties properties;
+
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestLimitProperties();
+        properties.setEnabled(true);
+        properties.setTimeout(Duration.ZERO);
+        dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(1);
+    }
+
+    @Test
+    @DisplayName("Given every permit taken, when another request arrives, then refuse it with 503")
+    void givenEveryPermitTaken_whenRequestArrives_thenRefuseIt() throws Exception {
+        // Given
+        RequestLimitFilter filter = new RequestLimitFilter(properties, dataSource);
+        MockHttpServletResponse nested = new MockHttpServletResponse();
+
+        // When - a second request arrives while the first, holding the only permit, runs
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(request("/api/v1/tasks"), first,
+                (request, response) -> filter.doFilter(request("/api/v1/tasks/1"), nested, (r, s) -> { }));
+
+        // Then
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(nested.getStatus()).isEqualTo(503);
+        assertThat(nested.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    @DisplayName("Given a request completed, when the next one arrives, then its permit is available again")
+    void givenRequestCompleted_whenNextArrives_thenHandleIt() throws Exception {
+        // Given
+        RequestLimitFilter filter = new RequestLimitFilter(properties, dataSource);
+        List<String> handled = new ArrayList<>();
+
+        // When
+        filter.doFilter(request("/api/v1/tasks"), new MockHttpServletResponse(), (r, s) -> handled.add("first"));
+        filter.doFilter(request("/api/v1/tasks"), new MockHttpServletResponse(), (r, s) -> handled.add("second"));
+
+        // Then
+        assertThat(handled).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("Given every permit taken, when a health check arrives, then answer it anyway")
+    void givenEveryPermitTaken_whenHealthCheckArrives_thenAnswerIt() throws Exception {
+        // Given
+        RequestLimitFilter filter = new RequestLimitFilter(properties, dataSource);
+        List<String> handled = new ArrayList<>();
+
+        // When
+        filter.doFilter(request("/api/v1/tasks"), new MockHttpServletResponse(), (request, response) ->
+                filter.doFilter(request("/actuator/health"), new MockHttpServletResponse(),
+                        (r, s) -> handled.add("health")));
+
+        // Then
+        assertThat(handled).containsExactly("health");
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
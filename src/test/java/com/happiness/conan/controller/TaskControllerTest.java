@@ -3,12 +3,26 @@ package com.happiness.conan.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.happiness.conan.domain.model.Label;
 import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelMode;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSpecifications;
+import com.happiness.conan.exception.TaskVersionMismatchException;
+import com.happiness.conan.service.TaskBatchPartitioner;
+import com.happiness.conan.service.TaskBatchResult;
+import com.happiness.conan.service.TaskChangeFeed;
+import com.happiness.conan.service.TaskImportLine;
+import com.happiness.conan.service.TaskImportResult;
 import com.happiness.conan.service.TaskService;
 import com.happiness.conan.web.controller.TaskController;
 import com.happiness.conan.web.dto.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -16,16 +30,27 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -43,8 +68,16 @@ class TaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    @MockBean
+    private TaskChangeFeed taskChangeFeed;
+
+    @MockBean
+    private TaskBatchPartitioner taskBatchPartitioner;
+
     private Task sampleTask;
     private List<Task> taskList;
+    private TaskRow sampleRow;
+    private List<TaskRow> rowList;
 
     @BeforeEach
     void setUp() {
@@ -68,16 +101,20 @@ class TaskControllerTest {
                 .build();
 
         taskList = List.of(sampleTask);
+
+        sampleRow = new TaskRow(sampleTask.getId(), sampleTask.getTitle(), sampleTask.getDescription(),
+                sampleTask.getDueDate(), sampleTask.getPriority(), sampleTask.isCompleted(),
+                sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of(featureLabel));
+        rowList = List.of(sampleRow);
     }
 
     @Test
     @DisplayName("GET /api/v1/tasks should return list of tasks")
     void listTasks_ShouldReturnTaskList() throws Exception {
         // Given
-        Page<Task> taskPage = new PageImpl<>(taskList);
-        when(taskService.findTasks(
-                any(), any(), any(), any(), any(), any(), any(Pageable.class)))
-                .thenReturn(taskPage); // Return page with sampleTask
+        Page<TaskRow> taskPage = new PageImpl<>(rowList);
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), eq(TaskCountMode.exact)))
+                .thenReturn(taskPage); // Return page with sampleRow
 
         // When/Then
         mockMvc.perform(get("/api/v1/tasks")
@@ -86,9 +123,228 @@ class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.tasks", hasSize(1)))
                 .andExpect(jsonPath("$.tasks[0].title", is("Test Task")))
+                .andExpect(jsonPath("$.tasks[0].labels[0].name", is("Feature")))
                 .andExpect(jsonPath("$.total", is(1)))
                 .andExpect(jsonPath("$.page", is(1)))
-                .andExpect(jsonPath("$.limit", is(10)));
+                .andExpect(jsonPath("$.limit", is(10)))
+                .andExpect(jsonPath("$.countMode", is("exact")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks should bind every filter parameter")
+    void listTasks_ShouldBindFilterParameters() throws Exception {
+        // Given
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), eq(TaskCountMode.exact)))
+                .thenReturn(Page.empty());
+
+        // When
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("labels", "1", "2")
+                        .param("labelMode", "any")
+                        .param("start", "2025-03-01")
+                        .param("end", "2025-03-31")
+                        .param("search", "report")
+                        .param("fuzzy", "true")
+                        .param("similarity", "0.4"))
+                .andExpect(status().isOk());
+
+        // Then
+        verify(taskService).listTasks(argThat(filter -> filter.getLabelIds().equals(List.of(1L, 2L))
+                        && filter.getLabelMode() == TaskLabelMode.any
+                        && filter.getDueFrom().equals(LocalDate.of(2025, 3, 1).atStartOfDay())
+                        && filter.getDueTo().toLocalDate().equals(LocalDate.of(2025, 3, 31))
+                        && "report".equals(filter.getSearch())
+                        && filter.isFuzzy()
+                        && filter.getSimilarity() == 0.4),
+                any(Pageable.class), eq(TaskCountMode.exact));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/changes should return changes and a watermark to continue from")
+    void listTaskChanges_ShouldReturnChangesAndWatermark() throws Exception {
+        // Given
+        TaskCursor start = TaskCursor.first("updatedAt", Sort.Direction.ASC);
+        TaskCursor watermark = start.after(sampleRow);
+        when(taskService.findChanges(start, 100))
+                .thenReturn(new TaskChanges(rowList, List.of(), watermark, false, false));
+        when(taskService.findChanges(watermark, 100))
+                .thenReturn(new TaskChanges(List.of(), List.of(3L), watermark, false, false));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks[0].title", is("Test Task")))
+                .andExpect(jsonPath("$.watermark", is(watermark.encode())))
+                .andExpect(jsonPath("$.hasMore", is(false)));
+        mockMvc.perform(get("/api/v1/tasks/changes").param("since", watermark.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks", hasSize(0)))
+                .andExpect(jsonPath("$.deletedIds[0]", is(3)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/changes should reject a list cursor as watermark")
+    void listTaskChanges_WithListCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/tasks/changes")
+                        .param("since", TaskCursor.first("createdAt", Sort.Direction.DESC).encode()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/events should open an event stream")
+    void streamTaskEvents_ShouldStartEventStream() throws Exception {
+        // Given
+        when(taskChangeFeed.subscribe()).thenReturn(new SseEmitter());
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/export should stream one JSON task per line")
+    void exportTasks_ShouldStreamNdjson() throws Exception {
+        // Given
+        TaskRow other = new TaskRow(2L, "Other Task", null, null, Task.Priority.low, true,
+                sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of());
+        exportInChunks(rowList, List.of(other));
+
+        // When
+        String body = mockMvc.perform(get("/api/v1/tasks/export").param("status", "completed"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.ndjson\""))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], TaskDTO.class).getLabels())
+                .extracting(LabelDTO::getName).containsExactly("Feature");
+        assertThat(objectMapper.readValue(lines[1], TaskDTO.class).isCompleted()).isTrue();
+
+        ArgumentCaptor<TaskFilter> filterCaptor = ArgumentCaptor.forClass(TaskFilter.class);
+        verify(taskService).exportTasks(filterCaptor.capture(), any());
+        assertThat(filterCaptor.getValue().getCompleted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/export?format=csv should stream a header and quoted rows")
+    void exportTasks_ShouldStreamCsv() throws Exception {
+        // Given
+        TaskRow quoted = new TaskRow(2L, "Say \"hi\", then leave", "line one\nline two", null, Task.Priority.low,
+                false, LocalDateTime.of(2025, 3, 1, 9, 0), LocalDateTime.of(2025, 3, 2, 9, 0), 0L, List.of());
+        exportInChunks(List.of(quoted));
+
+        // When
+        String body = mockMvc.perform(get("/api/v1/tasks/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        assertThat(body).isEqualTo(
+                "id,title,description,dueDate,priority,isCompleted,labelIds,createdAt,updatedAt\r\n"
+                        + "2,\"Say \"\"hi\"\", then leave\",\"line one\nline two\",,low,false,,"
+                        + "2025-03-01T09:00:00,2025-03-02T09:00:00\r\n");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/export should reject an unknown format")
+    void exportTasks_ShouldRejectUnknownFormat() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).exportTasks(any(), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/tasks/import should read CSV records and report rejected lines")
+    void importTasks_ShouldReadCsvAndReportRejectedLines() throws Exception {
+        // Given
+        String csv = "id,title,description,dueDate,priority,isCompleted,labelIds,labels\r\n"
+                + "1,\"Say \"\"hi\"\"\",\"line one\nline two\",2025-04-01T12:00:00,high,true,1;2,Bug\r\n"
+                + "\r\n"
+                + "2,Second,,not a date,,,,\r\n"
+                + "3,Short\r\n";
+        List<TaskImportLine> lines = new ArrayList<>();
+        when(taskService.importTasks(any())).thenAnswer(invocation -> {
+            Iterator<TaskImportLine> iterator = invocation.getArgument(0);
+            iterator.forEachRemaining(lines::add);
+            return new TaskImportResult(1, 2, List.of(
+                    new TaskImportResult.LineError(5, "Invalid dueDate: not a date"),
+                    new TaskImportResult.LineError(6, "Expected 8 fields, found 2")));
+        });
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedCount", is(1)))
+                .andExpect(jsonPath("$.failedCount", is(2)))
+                .andExpect(jsonPath("$.errors[0].line", is(5)));
+
+        assertThat(lines).extracting(TaskImportLine::getLineNumber).containsExactly(2L, 5L, 6L);
+        TaskCreateDTO first = lines.get(0).getTask();
+        assertThat(first.getTitle()).isEqualTo("Say \"hi\"");
+        assertThat(first.getDescription()).isEqualTo("line one\nline two");
+        assertThat(first.getDueDate()).isEqualTo(LocalDateTime.of(2025, 4, 1, 12, 0));
+        assertThat(first.getIsCompleted()).isTrue();
+        assertThat(first.getLabels()).extracting(LabelDTO::getId, LabelDTO::getName)
+                .containsExactly(tuple(1L, null),
+                        tuple(2L, null),
+                        tuple(null, "Bug"));
+        assertThat(lines.get(1).getError()).isEqualTo("Invalid dueDate: not a date");
+        assertThat(lines.get(2).getError()).isEqualTo("Expected 8 fields, found 2");
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/tasks/import should read one JSON task per line")
+    void importTasks_ShouldReadNdjson() throws Exception {
+        // Given
+        String ndjson = "{\"title\":\"Exported\",\"id\":9,\"labels\":[{\"id\":1,\"name\":\"Feature\"}]}\n"
+                + "{\"title\":\n";
+        List<TaskImportLine> lines = new ArrayList<>();
+        when(taskService.importTasks(any())).thenAnswer(invocation -> {
+            Iterator<TaskImportLine> iterator = invocation.getArgument(0);
+            iterator.forEachRemaining(lines::add);
+            return new TaskImportResult(1, 1, List.of());
+        });
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk());
+
+        assertThat(lines.get(0).getTask().getTitle()).isEqualTo("Exported");
+        assertThat(lines.get(0).getTask().getLabels()).extracting(LabelDTO::getId).containsExactly(1L);
+        assertThat(lines.get(1).isFailed()).isTrue();
+        assertThat(lines.get(1).getLineNumber()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/tasks/import should reject a CSV file without a title column")
+    void importTasks_ShouldRejectCsvWithoutTitle() throws Exception {
+        // When/Then
+        mockMvc.perform(post("/api/v1/tasks/import")
+                        .contentType("text/csv")
+                        .content("name,priority\r\nTask,high\r\n"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).importTasks(any());
+    }
+
+    @SafeVarargs
+    private void exportInChunks(List<TaskRow>... chunks) {
+        doAnswer(invocation -> {
+            Consumer<List<TaskRow>> sink = invocation.getArgument(1);
+            Arrays.stream(chunks).forEach(sink);
+            return null;
+        }).when(taskService).exportTasks(any(TaskFilter.class), any());
     }
 
     @Test
@@ -112,11 +368,33 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.task.title", is("Test Task")));
     }
 
+    @Test
+    @DisplayName("POST /api/v1/tasks/batch should create all tasks")
+    void batchCreateTasks_ShouldCreateAllTasks() throws Exception {
+        // Given
+        BatchCreateRequestDTO request = BatchCreateRequestDTO.builder()
+                .tasks(List.of(
+                        TaskCreateDTO.builder().title("Test Task").build(),
+                        TaskCreateDTO.builder().title("Other Task").build()))
+                .build();
+        Task other = Task.builder().id(2L).title("Other Task").priority(Task.Priority.medium)
+                .labels(new HashSet<>()).build();
+        when(taskService.createTasks(request.getTasks())).thenReturn(List.of(sampleTask, other));
+
+        // When/Then
+        mockMvc.perform(post("/api/v1/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.createdCount", is(2)))
+                .andExpect(jsonPath("$.tasks[1].title", is("Other Task")));
+    }
+
     @Test
     @DisplayName("GET /api/v1/tasks/{id} should return task by id")
     void getTaskById_ShouldReturnTask() throws Exception {
         // Given
-        when(taskService.getTaskById(1L)).thenReturn(sampleTask);
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
 
         // When/Then
         mockMvc.perform(get("/api/v1/tasks/1"))
@@ -127,6 +405,95 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.task.labels", hasSize(1)));
     }
 
+    @Test
+    @DisplayName("GET /api/v1/tasks/{id} should answer 304 when the task ETag still matches")
+    void getTaskById_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
+        String etag = mockMvc.perform(get("/api/v1/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        // When/Then - the task changed
+        sampleTask.setVersion(sampleTask.getVersion() + 1);
+        sampleTask.setUpdatedAt(sampleTask.getUpdatedAt().plusSeconds(1));
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
+        mockMvc.perform(get("/api/v1/tasks/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.task.id", is(1)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks/{id} should answer 200 when one of the task's labels was renamed")
+    void getTaskById_AfterLabelRename_ShouldReturnTask() throws Exception {
+        // Given
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
+        String etag = mockMvc.perform(get("/api/v1/tasks/1"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When - renamed, the task version unchanged
+        sampleTask.getLabels().iterator().next().setName("Enhancement");
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
+
+        // Then
+        mockMvc.perform(get("/api/v1/tasks/1").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.task.labels[0].name", is("Enhancement")));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/{id} should take the version from an If-Match ETag of a labelled task")
+    void updateTask_WithLabelledIfMatch_ShouldUpdateAtThatVersion() throws Exception {
+        // Given
+        sampleTask.setVersion(3);
+        when(taskService.getTaskSnapshot(1L)).thenReturn(TaskRow.of(sampleTask));
+        String etag = mockMvc.perform(get("/api/v1/tasks/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), eq(3L))).thenReturn(TaskRow.of(sampleTask));
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TaskUpdateDTO.builder().title("Renamed").build())))
+                .andExpect(status().isOk());
+        verify(taskService).updateTask(eq(1L), any(TaskUpdateDTO.class), eq(3L));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks should answer 304 without listing while the collection version is unchanged")
+    void listTasks_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        // Given
+        when(taskService.getListVersion()).thenReturn(OptionalLong.of(42L));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks").header("If-None-Match", "\"tasks-2a\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(taskService, never()).listTasks(any(TaskFilter.class), any(Pageable.class), any(TaskCountMode.class));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks should list without an ETag while the collection version is unsettled")
+    void listTasks_WithUnsettledVersion_ShouldListWithoutETag() throws Exception {
+        // Given
+        when(taskService.getListVersion()).thenReturn(OptionalLong.empty());
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), any(TaskCountMode.class)))
+                .thenReturn(new PageImpl<>(List.of(TaskRow.of(sampleTask))));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks").header("If-None-Match", "\"tasks-2a\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
     @Test
     @DisplayName("PATCH /api/v1/tasks/{id} should update task")
     void updateTask_ShouldUpdateAndReturnTask() throws Exception {
@@ -145,7 +512,7 @@ class TaskControllerTest {
                 .isCompleted(true)
                 .build();
 
-        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class))).thenReturn(updatedTask);
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), isNull())).thenReturn(TaskRow.of(updatedTask));
 
         // When/Then
         mockMvc.perform(patch("/api/v1/tasks/1")
@@ -158,6 +525,56 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.task.isCompleted", is(true)));
     }
 
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/{id} should pass the If-Match version and answer with the new ETag")
+    void updateTask_WithIfMatch_ShouldUpdateAtThatVersion() throws Exception {
+        // Given
+        TaskUpdateDTO updateDTO = TaskUpdateDTO.builder().title("Updated Task").build();
+        Task updatedTask = Task.builder()
+                .id(1L)
+                .title("Updated Task")
+                .priority(Task.Priority.medium)
+                .version(4)
+                .build();
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), eq(3L))).thenReturn(TaskRow.of(updatedTask));
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.task.version", is(4)));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/{id} should answer 412 when the task moved past the If-Match version")
+    void updateTask_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // Given
+        when(taskService.updateTask(eq(1L), any(TaskUpdateDTO.class), eq(3L)))
+                .thenThrow(new TaskVersionMismatchException());
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Updated Task\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/{id} should answer 412 without updating when If-Match is a weak tag")
+    void updateTask_WithWeakIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Updated Task\"}"))
+                .andExpect(status().isPreconditionFailed());
+        verify(taskService, never()).updateTask(anyLong(), any(TaskUpdateDTO.class), any());
+    }
+
     @Test
     @DisplayName("DELETE /api/v1/tasks/{id} should delete task")
     void deleteTask_ShouldReturnSuccess() throws Exception {
@@ -185,7 +602,9 @@ class TaskControllerTest {
         BatchUpdateRequestDTO batchRequest = new BatchUpdateRequestDTO();
         batchRequest.setUpdates(List.of(batchItem));
 
-        when(taskService.batchUpdateTasks(any(BatchUpdateRequestDTO.class))).thenReturn(taskList);
+        when(taskService.batchUpdateTasks(any(BatchUpdateRequestDTO.class))).thenReturn(new TaskBatchResult(taskList, List.of(
+                new TaskBatchResult.Item(1L, TaskBatchResult.Status.updated, null),
+                new TaskBatchResult.Item(2L, TaskBatchResult.Status.not_found, "Task not found"))));
 
         // When/Then
         mockMvc.perform(patch("/api/v1/tasks/batch")
@@ -193,7 +612,110 @@ class TaskControllerTest {
                         .content(objectMapper.writeValueAsString(batchRequest)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.tasks", hasSize(1)))
-                .andExpect(jsonPath("$.updatedCount", is(1)));
+                .andExpect(jsonPath("$.updatedCount", is(1)))
+                .andExpect(jsonPath("$.results[1].status", is("not_found")))
+                .andExpect(jsonPath("$.results[1].message", is("Task not found")));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/batch in partitioned mode should apply the batch a partition at a time")
+    void batchUpdateTasks_Partitioned_ShouldUsePartitioner() throws Exception {
+        // Given
+        BatchUpdateRequestDTO batchRequest = new BatchUpdateRequestDTO(List.of(
+                new BatchUpdateRequestDTO.TaskBatchUpdateDTO(1L, TaskUpdateDTO.builder().isCompleted(true).build(), null)));
+        when(taskBatchPartitioner.batchUpdateTasks(any(BatchUpdateRequestDTO.class))).thenReturn(new TaskBatchResult(
+                List.of(), List.of(new TaskBatchResult.Item(1L, TaskBatchResult.Status.failed, "Not applied"))));
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/batch")
+                        .param("mode", "partitioned")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedCount", is(0)))
+                .andExpect(jsonPath("$.results[0].status", is("failed")));
+        verify(taskService, never()).batchUpdateTasks(any(BatchUpdateRequestDTO.class));
+
+        // When/Then - unknown mode
+        mockMvc.perform(patch("/api/v1/tasks/batch")
+                        .param("mode", "eventual")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/bulk should update the tasks matching the filters")
+    void bulkUpdateTasks_ShouldUpdateMatchingTasks() throws Exception {
+        // Given
+        BulkUpdateRequestDTO request = BulkUpdateRequestDTO.builder().isCompleted(true).build();
+        when(taskService.bulkUpdateTasks(any(TaskFilter.class), eq(request))).thenReturn(12);
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/bulk")
+                        .param("status", "active")
+                        .param("labels", "1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedCount", is(12)));
+
+        verify(taskService).bulkUpdateTasks(
+                argThat(filter -> Boolean.FALSE.equals(filter.getCompleted()) && filter.getLabelIds().equals(List.of(1L))),
+                eq(request));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/tasks/bulk should delete the tasks matching the filters")
+    void bulkDeleteTasks_ShouldDeleteMatchingTasks() throws Exception {
+        // Given
+        when(taskService.bulkDeleteTasks(any(TaskFilter.class))).thenReturn(3);
+
+        // When/Then
+        mockMvc.perform(delete("/api/v1/tasks/bulk")
+                        .param("status", "completed")
+                        .param("priority", "low"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedCount", is(3)));
+
+        verify(taskService).bulkDeleteTasks(argThat(filter ->
+                Boolean.TRUE.equals(filter.getCompleted()) && filter.getPriority() == Task.Priority.low));
+        verify(taskService, never()).deleteTask(any());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/tasks/bulk should refuse unknown filter values")
+    void bulkDeleteTasks_ShouldRefuseUnknownFilterValues() throws Exception {
+        // When/Then
+        mockMvc.perform(delete("/api/v1/tasks/bulk").param("status", "complete"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/v1/tasks/bulk").param("status", "active").param("priority", "urgent"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/v1/tasks/bulk").param("labels", "1").param("labelMode", "every"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).bulkDeleteTasks(any());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/tasks/bulk should refuse unknown filter values")
+    void bulkUpdateTasks_ShouldRefuseUnknownFilterValues() throws Exception {
+        // Given
+        String request = objectMapper.writeValueAsString(BulkUpdateRequestDTO.builder().isCompleted(true).build());
+
+        // When/Then
+        mockMvc.perform(patch("/api/v1/tasks/bulk")
+                        .param("status", "complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/tasks/bulk")
+                        .param("priority", "urgent")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).bulkUpdateTasks(any(), any());
     }
 
     @Test
@@ -206,7 +728,7 @@ class TaskControllerTest {
                 .isCompleted(true) // Toggled from false to true
                 .build();
 
-        when(taskService.toggleTaskCompletion(1L)).thenReturn(toggledTask);
+        when(taskService.toggleTaskCompletion(1L)).thenReturn(TaskRow.of(toggledTask));
 
         // When/Then
         mockMvc.perform(patch("/api/v1/tasks/1/toggle-complete"))
@@ -220,12 +742,9 @@ class TaskControllerTest {
     @DisplayName("GET /api/v1/tasks with filters should return filtered tasks")
     void listTasksWithFilters_ShouldReturnFilteredTasks() throws Exception {
         // Given
-        Page<Task> taskPage = new PageImpl<>(taskList, PageRequest.of(0, 10), taskList.size());
+        Page<TaskRow> taskPage = new PageImpl<>(rowList, PageRequest.of(0, 10), rowList.size());
 
-        when(taskService.findTasks(
-                eq("active"), eq("high"), anyList(),
-                any(LocalDate.class), any(LocalDate.class),
-                eq("search"), any(Pageable.class)))
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), any(TaskCountMode.class)))
                 .thenReturn(taskPage);
 
         // When/Then
@@ -233,6 +752,7 @@ class TaskControllerTest {
                 .param("status", "active")
                 .param("priority", "high")
                 .param("labels", "1", "2")
+                .param("labelMode", "any")
                 .param("start", "2023-01-01")
                 .param("end", "2023-12-31")
                 .param("search", "search")
@@ -243,13 +763,143 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.total", is(1)));
 
         // Verify correct parameters were passed to service
-        verify(taskService).findTasks(
-                eq("active"),
-                eq("high"),
-                anyList(),
-                any(LocalDate.class),
-                any(LocalDate.class),
-                eq("search"),
-                any(Pageable.class));
-    }
-}
\ No newline at end of file
+        ArgumentCaptor<TaskFilter> filterCaptor = ArgumentCaptor.forClass(TaskFilter.class);
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(taskService).listTasks(filterCaptor.capture(), pageableCaptor.capture(), eq(TaskCountMode.exact));
+
+        TaskFilter filter = filterCaptor.getValue();
+        assertThat(filter.getCompleted()).isFalse();
+        assertThat(filter.getPriority()).isEqualTo(Task.Priority.high);
+        assertThat(filter.getLabelIds()).containsExactly(1L, 2L);
+        assertThat(filter.getLabelMode()).isEqualTo(TaskLabelMode.any);
+        assertThat(filter.getDueFrom()).isEqualTo(LocalDate.of(2023, 1, 1).atStartOfDay());
+        assertThat(filter.getDueTo()).isEqualTo(LocalDate.of(2023, 12, 31).atTime(LocalTime.MAX));
+        assertThat(filter.getSearch()).isEqualTo("search");
+        assertThat(pageableCaptor.getValue().getSort()).isEqualTo(Sort.by(Sort.Direction.ASC, "dueDate"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with a search term and no sort should sort by relevance")
+    void listTasksWithSearch_ShouldSortByRelevance() throws Exception {
+        // Given
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), any(TaskCountMode.class)))
+                .thenReturn(new PageImpl<>(rowList));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("search", "login"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(taskService).listTasks(any(TaskFilter.class), pageableCaptor.capture(), eq(TaskCountMode.exact));
+        assertThat(pageableCaptor.getValue().getSort())
+                .isEqualTo(Sort.by(Sort.Direction.DESC, TaskSpecifications.RELEVANCE));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with fuzzy search should pass the similarity options to the service")
+    void listTasksWithFuzzySearch_ShouldPassSimilarityOptions() throws Exception {
+        // Given
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), any(TaskCountMode.class)))
+                .thenReturn(new PageImpl<>(rowList));
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("search", "TCK-42")
+                        .param("fuzzy", "true")
+                        .param("similarity", "0.4"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<TaskFilter> filterCaptor = ArgumentCaptor.forClass(TaskFilter.class);
+        verify(taskService).listTasks(filterCaptor.capture(), any(Pageable.class), eq(TaskCountMode.exact));
+        assertThat(filterCaptor.getValue().isFuzzySearch()).isTrue();
+        assertThat(filterCaptor.getValue().getSimilarity()).isEqualTo(0.4);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with count mode none should only report whether a next page exists")
+    void listTasksWithoutCount_ShouldReturnHasNextOnly() throws Exception {
+        // Given
+        Slice<TaskRow> taskSlice = new SliceImpl<>(rowList, PageRequest.of(0, 1), true);
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), eq(TaskCountMode.none)))
+                .thenReturn(taskSlice);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("limit", "1")
+                        .param("countMode", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks", hasSize(1)))
+                .andExpect(jsonPath("$.total").doesNotExist())
+                .andExpect(jsonPath("$.countMode", is("none")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with window count mode should pass the mode to the service")
+    void listTasksWithWindowCount_ShouldUseWindowCount() throws Exception {
+        // Given
+        Page<TaskRow> taskPage = new PageImpl<>(rowList, PageRequest.of(0, 10), 25);
+        when(taskService.listTasks(any(TaskFilter.class), any(Pageable.class), eq(TaskCountMode.window)))
+                .thenReturn(taskPage);
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("countMode", "window"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(25)))
+                .andExpect(jsonPath("$.countMode", is("window")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks in cursor mode should return the next cursor")
+    void listTasksInCursorMode_ShouldReturnNextCursor() throws Exception {
+        // Given
+        Slice<TaskRow> taskSlice = new SliceImpl<>(rowList, Pageable.ofSize(1), true);
+        when(taskService.listTasks(any(TaskFilter.class), any(TaskCursor.class), eq(1)))
+                .thenReturn(taskSlice);
+        String expectedCursor = TaskCursor.first("createdAt", Sort.Direction.DESC)
+                .after(sampleRow)
+                .encode();
+
+        // When/Then
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("pagination", "cursor")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tasks", hasSize(1)))
+                .andExpect(jsonPath("$.nextCursor", is(expectedCursor)))
+                .andExpect(jsonPath("$.total").doesNotExist());
+
+        // Following the cursor resumes after the last task
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("cursor", expectedCursor)
+                        .param("limit", "1"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<TaskCursor> cursorCaptor = ArgumentCaptor.forClass(TaskCursor.class);
+        verify(taskService, times(2)).listTasks(any(TaskFilter.class), cursorCaptor.capture(), eq(1));
+        assertThat(cursorCaptor.getAllValues().get(0).isFirst()).isTrue();
+        assertThat(cursorCaptor.getAllValues().get(1).getLastId()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with a malformed cursor should be rejected")
+    void listTasksWithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/tasks with a cursor issued for another ordering should be rejected")
+    void listTasksWithCursorForOtherSort_ShouldReturnBadRequest() throws Exception {
+        String cursor = TaskCursor.first("dueDate", Sort.Direction.ASC).after(sampleRow).encode();
+
+        mockMvc.perform(get("/api/v1/tasks")
+                        .param("cursor", cursor)
+                        .param("sortBy", "createdAt"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -4,19 +4,28 @@ import com.happiness.conan.domain.model.Label;
 import com.happiness.conan.domain.model.Task;
 import com.happiness.conan.domain.model.Task.Priority;
 import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelMode;
 import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSpecifications;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -33,6 +42,9 @@ class TaskRepositoryIT {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Task task1;
     private Task task2;
     private Task task3;
@@ -86,95 +98,189 @@ class TaskRepositoryIT {
     }
 
     @Test
-    @DisplayName("findByIsCompleted should return tasks filtered by completion status")
-    void findByIsCompleted_shouldReturnFilteredTasks() {
+    @DisplayName("findAll with a combined specification should apply every filter")
+    void findAll_withCombinedSpecification_shouldApplyEveryFilter() {
+        // Given
+        TaskFilter filter = TaskFilter.builder()
+                .completed(false)
+                .priority(Priority.low)
+                .labelIds(List.of(featureLabel.getId()))
+                .search("auth")
+                .build();
+
         // When
-        Page<Task> completedTasks = taskRepository.findByIsCompleted(true, PageRequest.of(0, 10));
-        Page<Task> activeTasks = taskRepository.findByIsCompleted(false, PageRequest.of(0, 10));
+        Page<Task> tasks = taskRepository.findAll(TaskSpecifications.matching(filter), PageRequest.of(0, 10));
 
         // Then
-        assertThat(completedTasks.getContent()).hasSize(1);
-//        assertThat(completedTasks.getContent().get(0).getTitle()).isEqualTo("Fix login bug");
-
-        assertThat(activeTasks.getContent()).hasSize(2);
-//        assertThat(activeTasks.getContent()).extracting("title")
-//                .containsExactlyInAnyOrder("Implement login", "Refactor authentication");
+        assertThat(tasks.getTotalElements()).isEqualTo(1);
+        assertThat(tasks.getContent()).extracting("title").containsExactly("Refactor authentication");
     }
 
     @Test
-    @DisplayName("findByPriority should return tasks with specified priority")
-    void findByPriority_shouldReturnTasksWithSpecifiedPriority() {
+    @DisplayName("hasAllLabels specification should require every label")
+    void hasAllLabels_shouldRequireEveryLabel() {
         // When
-        Page<Task> highPriorityTasks = taskRepository.findByPriority(
-                Task.Priority.high, PageRequest.of(0, 10));
+        Page<Task> tasks = taskRepository.findAll(
+                TaskSpecifications.hasAllLabels(List.of(featureLabel.getId(), techDebtLabel.getId())),
+                PageRequest.of(0, 10));
 
-        Page<Task> mediumPriorityTasks = taskRepository.findByPriority(
-                Task.Priority.medium, PageRequest.of(0, 10));
+        // Then
+        assertThat(tasks.getContent()).extracting("title").containsExactly("Refactor authentication");
+    }
+
+    @Test
+    @DisplayName("hasLabels specification should combine labels as any, all or none")
+    void hasLabels_shouldCombineLabelsByMode() {
+        // Given
+        Task unlabelled = new Task();
+        unlabelled.setTitle("Unlabelled task");
+        unlabelled.setPriority(Priority.low);
+        taskRepository.save(unlabelled);
+        List<Long> labelIds = List.of(bugLabel.getId(), techDebtLabel.getId());
+
+        // When
+        List<Task> any = taskRepository.findAll(TaskSpecifications.hasLabels(labelIds, TaskLabelMode.any));
+        List<Task> all = taskRepository.findAll(TaskSpecifications.hasLabels(labelIds, TaskLabelMode.all));
+        List<Task> none = taskRepository.findAll(TaskSpecifications.hasLabels(labelIds, TaskLabelMode.none));
 
         // Then
-        assertThat(highPriorityTasks.getContent()).hasSize(1);
-        assertThat(highPriorityTasks.getContent().get(0).getTitle()).isEqualTo("Implement login");
+        assertThat(any).extracting("title").containsExactlyInAnyOrder("Fix login bug", "Refactor authentication");
+        assertThat(all).isEmpty();
+        assertThat(none).extracting("title").containsExactlyInAnyOrder("Implement login", "Unlabelled task");
+    }
 
-        assertThat(mediumPriorityTasks.getContent()).hasSize(1);
-        assertThat(mediumPriorityTasks.getContent().get(0).getTitle()).isEqualTo("Fix login bug");
+    @Test
+    @DisplayName("findAfter should page through every task once, placing null sort keys last")
+    void findAfter_shouldPageThroughEveryTaskOnce() {
+        // Given - two tasks without due date and two sharing the same due date
+        LocalDateTime dueDate = LocalDateTime.of(2030, 1, 1, 12, 0);
+        for (String title : List.of("Undated task 1", "Undated task 2")) {
+            Task undated = new Task();
+            undated.setTitle(title);
+            undated.setPriority(Priority.low);
+            taskRepository.save(undated);
+        }
+
+        for (String title : List.of("Same due date 1", "Same due date 2")) {
+            Task sameDueDate = new Task();
+            sameDueDate.setTitle(title);
+            sameDueDate.setPriority(Priority.low);
+            sameDueDate.setDueDate(dueDate);
+            taskRepository.save(sameDueDate);
+        }
+        // Read back what the database stored, so cursors carry persisted sort keys
+        entityManager.flush();
+        entityManager.clear();
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            // When - read two tasks at a time
+            List<String> titles = new ArrayList<>();
+            TaskCursor cursor = TaskCursor.first("dueDate", direction);
+            List<TaskRow> page = taskRepository.findAfter(null, cursor, 2);
+            while (!page.isEmpty()) {
+                page.forEach(row -> titles.add(row.getTitle()));
+                cursor = cursor.after(page.get(page.size() - 1));
+                page = taskRepository.findAfter(null, cursor, 2);
+            }
+
+            // Then - a page spans the last dated and first undated task
+            assertThat(titles).hasSize(7).doesNotHaveDuplicates();
+            assertThat(titles.subList(5, 7)).containsExactlyInAnyOrder("Undated task 1", "Undated task 2");
+        }
     }
 
     @Test
-    @DisplayName("findByLabelIdsAll should return tasks that have all specified labels")
-    void findByLabelIdsAll_shouldReturnTasksWithAllSpecifiedLabels() {
-        // When - search for tasks with featureLabel
-        Page<Task> featureTasks = taskRepository.findByLabelIdsAll(
-                List.of(featureLabel.getId()), 1, PageRequest.of(0, 10));
+    @DisplayName("findAfter should combine the keyset position with the filter specification")
+    void findAfter_shouldApplyFilterSpecification() {
+        // Given
+        TaskCursor cursor = TaskCursor.first("priority", Sort.Direction.ASC);
+        TaskFilter filter = TaskFilter.builder().labelIds(List.of(featureLabel.getId())).build();
 
-        // When - search for tasks with both featureLabel AND techDebtLabel
-        Page<Task> featureAndTechDebtTasks = taskRepository.findByLabelIdsAll(
-                List.of(featureLabel.getId(), techDebtLabel.getId()), 2, PageRequest.of(0, 10));
+        // When
+        List<TaskRow> firstPage = taskRepository.findAfter(TaskSpecifications.matching(filter), cursor, 1);
+        List<TaskRow> secondPage = taskRepository.findAfter(TaskSpecifications.matching(filter),
+                cursor.after(firstPage.get(0)), 1);
 
         // Then
-        assertThat(featureTasks.getContent()).hasSize(2);
-        assertThat(featureTasks.getContent()).extracting("title")
-                .containsExactlyInAnyOrder("Implement login", "Refactor authentication");
-
-        assertThat(featureAndTechDebtTasks.getContent()).hasSize(1);
-        assertThat(featureAndTechDebtTasks.getContent().get(0).getTitle()).isEqualTo("Refactor authentication");
+        assertThat(firstPage).extracting("title").containsExactly("Implement login");
+        assertThat(secondPage).extracting("title").containsExactly("Refactor authentication");
     }
 
     @Test
-    @DisplayName("findByDueDateBetween should return tasks with due dates in the specified range")
-    void findByDueDateBetween_shouldReturnTasksInDateRange() {
+    @DisplayName("findPageWithWindowCount should return the page and the total from one query")
+    void findPageWithWindowCount_shouldReturnPageAndTotal() {
         // Given
-        LocalDateTime startDate = LocalDateTime.now();
-        LocalDateTime endDate = LocalDateTime.now().plusDays(2);
+        TaskFilter filter = TaskFilter.builder().labelIds(List.of(featureLabel.getId())).build();
+        Pageable firstPage = PageRequest.of(0, 1, Sort.by("priority"));
 
         // When
-        Page<Task> tasksWithinRange = taskRepository.findByDueDateBetween(
-                startDate, endDate, PageRequest.of(0, 10));
+        Page<TaskRow> page = taskRepository.findPageWithWindowCount(TaskSpecifications.matching(filter), firstPage);
+        Page<TaskRow> pastLastPage = taskRepository.findPageWithWindowCount(null, PageRequest.of(5, 10));
 
         // Then
-        assertThat(tasksWithinRange.getContent()).hasSize(2);
-        assertThat(tasksWithinRange.getContent()).extracting("title")
-                .containsExactlyInAnyOrder("Implement login", "Fix login bug");
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting("title").containsExactly("Implement login");
+        assertThat(pastLastPage.getContent()).isEmpty();
+        assertThat(pastLastPage.getTotalElements()).isEqualTo(3);
     }
 
     @Test
-    @DisplayName("findByTitleOrDescriptionContainingIgnoreCase should return tasks matching search term")
-    void findByTitleOrDescriptionContainingIgnoreCase_shouldReturnMatchingTasks() {
-        // When - search by title substring
-        Page<Task> loginTasks = taskRepository.findByTitleOrDescriptionContainingIgnoreCase(
-                "login", PageRequest.of(0, 10));
+    @DisplayName("findSlice should tell whether a next page exists without counting")
+    void findSlice_shouldDetectNextPage() {
+        // When
+        Slice<TaskRow> firstSlice = taskRepository.findSlice(null, PageRequest.of(0, 2, Sort.by("dueDate")));
+        Slice<TaskRow> lastSlice = taskRepository.findSlice(null, PageRequest.of(1, 2, Sort.by("dueDate")));
 
-        // When - search by description substring
-        Page<Task> authTasks = taskRepository.findByTitleOrDescriptionContainingIgnoreCase(
-                "auth", PageRequest.of(0, 10));
+        // Then
+        assertThat(firstSlice.getContent()).extracting("title").containsExactly("Fix login bug", "Implement login");
+        assertThat(firstSlice.hasNext()).isTrue();
+        assertThat(lastSlice.getContent()).extracting("title").containsExactly("Refactor authentication");
+        assertThat(lastSlice.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("findPage should read rows without attaching them to the persistence context")
+    void findPage_shouldReturnDetachedRows() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Page<TaskRow> page = taskRepository.findPage(null, PageRequest.of(0, 10, Sort.by("dueDate")));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).extracting("title")
+                .containsExactly("Fix login bug", "Implement login", "Refactor authentication");
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Searching should match LIKE wildcards in the term literally")
+    void search_shouldMatchWildcardsLiterally() {
+        // When
+        List<Task> wildcard = taskRepository.findAll(TaskSpecifications.titleOrDescriptionContains("%"));
+        List<Task> underscore = taskRepository.findAll(TaskSpecifications.titleOrDescriptionContains("login_"));
 
         // Then
-        assertThat(loginTasks.getContent()).hasSize(2);
-        assertThat(loginTasks.getContent()).extracting("title")
+        assertThat(wildcard).isEmpty();
+        assertThat(underscore).isEmpty();
+        assertThat(taskRepository.findAll(TaskSpecifications.titleOrDescriptionContains("LOGIN")))
+                .extracting(Task::getTitle)
                 .containsExactlyInAnyOrder("Implement login", "Fix login bug");
+    }
+
+    @Test
+    @DisplayName("estimateCount should stop counting at the cap")
+    void estimateCount_shouldStopAtCap() {
+        // Given
+        TaskFilter filter = TaskFilter.builder().search("login").build();
 
-        assertThat(authTasks.getContent()).hasSize(2);
-        assertThat(authTasks.getContent()).extracting("title")
-                .containsExactlyInAnyOrder("Implement login", "Refactor authentication");
+        // When/Then
+        assertThat(taskRepository.estimateCount(TaskSpecifications.matching(filter), 100)).isEqualTo(2);
+        assertThat(taskRepository.estimateCount(null, 100)).isEqualTo(3);
+        assertThat(taskRepository.estimateCount(null, 2)).isEqualTo(2);
     }
 
     @Test
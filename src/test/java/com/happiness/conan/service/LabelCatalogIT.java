@@ -0,0 +1,72 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.web.dto.LabelDTO;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction, so label changes commit and reach the catalog.
+ */
+@SpringBootTest(properties = {
+        "conan.search.mode=index",
+        "conan.label-index.enabled=true",
+        "conan.page-cache.enabled=true"
+})
+@ActiveProfiles("test")
+class LabelCatalogIT {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private LabelCatalog labelCatalog;
+
+    @Test
+    @DisplayName("The label catalog should follow committed label changes")
+    void labelCatalog_shouldFollowCommittedChanges() {
+        // Given
+        Label label = labelRepository.save(Label.builder().name("Catalog").color("blue").build());
+        Task task = taskService.createTask(TaskCreateDTO.builder()
+                .title("Catalogued task")
+                .labels(List.of(new LabelDTO(label.getId(), null, null)))
+                .build());
+
+        try {
+            // When - the label is renamed
+            label.setName("Renamed");
+            labelRepository.save(label);
+
+            // Then
+            assertThat(labelCatalog.resolve(List.of(label.getId()))).extracting(Label::getName)
+                    .containsExactly("Renamed");
+            List<TaskRow> rows = taskService.listTasks(TaskFilter.builder().labelIds(List.of(label.getId())).build(),
+                    PageRequest.of(0, 10), TaskCountMode.none).getContent();
+            assertThat(rows).singleElement()
+                    .satisfies(row -> assertThat(row.getLabels()).extracting(Label::getName).containsExactly("Renamed"));
+        } finally {
+            taskService.deleteTask(task.getId());
+            labelRepository.delete(label);
+        }
+
+        // Then
+        assertThat(labelCatalog.resolve(List.of(label.getId()))).isEmpty();
+    }
+}
@@ -0,0 +1,114 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.repository.LabelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LabelCatalogTest {
+
+    @Mock
+    private LabelRepository labelRepository;
+
+    private LabelCatalog labelCatalog;
+
+    private Label feature;
+
+    @BeforeEach
+    void setUp() {
+        labelCatalog = new LabelCatalog(labelRepository);
+        feature = Label.builder().id(1L).name("Feature").color("blue").build();
+        when(labelRepository.findAll()).thenReturn(List.of(feature));
+        labelCatalog.refresh();
+    }
+
+    @Test
+    @DisplayName("Given loaded labels, when resolving their ids, then answer from the snapshot with copies")
+    void givenLoadedLabels_whenResolve_thenAnswerFromSnapshot() {
+        // When
+        List<Label> labels = labelCatalog.resolve(Arrays.asList(1L, 1L, null));
+
+        // Then
+        assertThat(labels).extracting(Label::getName).containsExactly("Feature");
+        assertThat(labels.get(0)).isNotSameAs(feature);
+        verify(labelRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    @DisplayName("Given an id missing from the snapshot, when resolving it, then look it up and skip unknown ids")
+    void givenMissingId_whenResolve_thenLookItUp() {
+        // Given
+        Label bug = Label.builder().id(2L).name("Bug").color("red").build();
+        when(labelRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(bug));
+
+        // When
+        List<Label> labels = labelCatalog.resolve(List.of(1L, 2L, 3L));
+
+        // Then
+        assertThat(labels).extracting(Label::getName).containsExactlyInAnyOrder("Feature", "Bug");
+    }
+
+    @Test
+    @DisplayName("Given a label change, when it is committed, then swap in a reloaded snapshot")
+    void givenLabelChange_whenCommitted_thenReload() {
+        // Given
+        Label renamed = Label.builder().id(1L).name("Enhancement").color("green").build();
+        when(labelRepository.findAll()).thenReturn(List.of(renamed));
+
+        // When
+        labelCatalog.onLabelChanged(LabelChangedEvent.saved(1L));
+
+        // Then
+        assertThat(labelCatalog.resolve(List.of(1L))).extracting(Label::getName).containsExactly("Enhancement");
+    }
+
+    @Test
+    @DisplayName("Given a label deleted elsewhere, when resolving it for a task, then skip it and reload the snapshot")
+    void givenLabelDeletedElsewhere_whenResolveExisting_thenSkipItAndReload() {
+        // Given - deleted by another instance, still in the snapshot
+        when(labelRepository.findExistingIds(List.of(1L))).thenReturn(Set.of());
+        when(labelRepository.findAll()).thenReturn(List.of());
+
+        // When
+        List<Label> labels = labelCatalog.resolveExisting(List.of(1L));
+
+        // Then
+        assertThat(labels).isEmpty();
+        assertThat(labelCatalog.all()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Given overlapping refreshes, when the earlier one finishes last, then keep the newer snapshot")
+    void givenOverlappingRefreshes_whenEarlierFinishesLast_thenKeepNewerSnapshot() {
+        // Given - a second refresh runs while the first is reading the table
+        Label renamed = Label.builder().id(1L).name("Enhancement").color("green").build();
+        when(labelRepository.findAll())
+                .thenAnswer(invocation -> {
+                    labelCatalog.refresh();
+                    return List.of(feature);
+                })
+                .thenReturn(List.of(renamed));
+
+        // When
+        labelCatalog.refresh();
+
+        // Then
+        assertThat(labelCatalog.all()).extracting(Label::getName).containsExactly("Enhancement");
+    }
+}
@@ -0,0 +1,119 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskBatchProperties;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.web.dto.BatchUpdateRequestDTO;
+import com.happiness.conan.web.dto.TaskUpdateDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskBatchPartitionerTest {
+
+    // Partitions applied by the fake service, in call order
+    private final List<List<Long>> partitions = new ArrayList<>();
+
+    private TaskBatchPartitioner partitioner;
+
+    @BeforeEach
+    void setUp() {
+        TaskBatchProperties properties = new TaskBatchProperties();
+        properties.setPartitionSize(2);
+        TaskService taskService = mock(TaskService.class);
+        when(taskService.batchUpdateTasks(any(BatchUpdateRequestDTO.class)))
+                .thenAnswer(invocation -> apply(invocation.getArgument(0)));
+        partitioner = new TaskBatchPartitioner(taskService, properties, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Given a batch within the partition size, when it is applied, then run it as one batch")
+    void givenSmallBatch_whenBatchUpdateTasks_thenRunOneBatch() {
+        // When
+        TaskBatchResult result = partitioner.batchUpdateTasks(batch(2L, 1L));
+
+        // Then
+        assertThat(partitions).containsExactly(List.of(2L, 1L));
+        assertThat(result.getUpdated()).extracting(Task::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @DisplayName("Given a large batch, when it is applied, then split it into id ranges and merge in request order")
+    void givenLargeBatch_whenBatchUpdateTasks_thenPartitionByIdRange() {
+        // When
+        TaskBatchResult result = partitioner.batchUpdateTasks(batch(5L, 3L, 1L, 3L, 4L, null));
+
+        // Then - a task's items are not split across partitions
+        assertThat(partitions).containsExactly(Arrays.asList(null, 1L), List.of(3L, 3L), List.of(4L, 5L));
+        assertThat(result.getItems()).extracting(TaskBatchResult.Item::getId, TaskBatchResult.Item::getStatus)
+                .containsExactly(
+                        tuple(5L, TaskBatchResult.Status.updated),
+                        tuple(3L, TaskBatchResult.Status.updated),
+                        tuple(1L, TaskBatchResult.Status.updated),
+                        tuple(3L, TaskBatchResult.Status.invalid),
+                        tuple(4L, TaskBatchResult.Status.updated),
+                        tuple(null, TaskBatchResult.Status.invalid));
+        assertThat(result.getUpdated()).extracting(Task::getId).containsExactly(5L, 3L, 1L, 4L);
+    }
+
+    @Test
+    @DisplayName("Given a partition failing, when a large batch is applied, then report its items as failed and keep the others")
+    void givenFailingPartition_whenBatchUpdateTasks_thenReportItsItemsFailed() {
+        // When - the fake service fails the partition holding task 13
+        TaskBatchResult result = partitioner.batchUpdateTasks(batch(11L, 12L, 13L, 14L));
+
+        // Then
+        assertThat(result.getItems()).extracting(TaskBatchResult.Item::getStatus)
+                .containsExactly(
+                        TaskBatchResult.Status.updated,
+                        TaskBatchResult.Status.updated,
+                        TaskBatchResult.Status.failed,
+                        TaskBatchResult.Status.failed);
+        assertThat(result.getUpdated()).extracting(Task::getId).containsExactly(11L, 12L);
+    }
+
+    private static BatchUpdateRequestDTO batch(Long... ids) {
+        List<BatchUpdateRequestDTO.TaskBatchUpdateDTO> items = new ArrayList<>();
+        for (Long id : ids) {
+            items.add(new BatchUpdateRequestDTO.TaskBatchUpdateDTO(id,
+                    TaskUpdateDTO.builder().isCompleted(true).build(), null));
+        }
+        return new BatchUpdateRequestDTO(items);
+    }
+
+    /**
+     * Stands in for a batch transaction: updates every item of a known id once, reports
+     * the others as invalid, and fails any batch holding task 13.
+     */
+    private TaskBatchResult apply(BatchUpdateRequestDTO batchUpdateRequestDTO) {
+        List<Long> ids = batchUpdateRequestDTO.getUpdates().stream()
+                .map(BatchUpdateRequestDTO.TaskBatchUpdateDTO::getId)
+                .toList();
+        partitions.add(ids);
+        if (ids.contains(13L)) {
+            throw new CannotAcquireLockException("Lock timeout");
+        }
+
+        List<Task> updated = new ArrayList<>();
+        List<TaskBatchResult.Item> items = new ArrayList<>();
+        for (Long id : ids) {
+            if (id == null || updated.stream().anyMatch(task -> task.getId().equals(id))) {
+                items.add(new TaskBatchResult.Item(id, TaskBatchResult.Status.invalid, "Invalid"));
+            } else {
+                updated.add(Task.builder().id(id).build());
+                items.add(new TaskBatchResult.Item(id, TaskBatchResult.Status.updated, null));
+            }
+        }
+        return new TaskBatchResult(updated, items);
+    }
+}
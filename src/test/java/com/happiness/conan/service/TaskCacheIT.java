@@ -0,0 +1,108 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.exception.BizException;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+import com.happiness.conan.web.dto.TaskUpdateDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs without a test transaction, so task changes commit and invalidate the caches.
+ */
+@SpringBootTest(properties = {
+        "conan.search.mode=index",
+        "conan.label-index.enabled=true",
+        "conan.page-cache.enabled=true"
+})
+@ActiveProfiles("test")
+class TaskCacheIT {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Task snapshots should follow committed changes and report cache metrics")
+    void taskSnapshot_shouldFollowCommittedChanges() {
+        // Given
+        Task task = taskService.createTask(TaskCreateDTO.builder().title("Cached task").build());
+        Long id = task.getId();
+        double hitsBefore = hits();
+
+        // When/Then - the second read is a hit
+        assertThat(taskService.getTaskSnapshot(id).getTitle()).isEqualTo("Cached task");
+        assertThat(taskService.getTaskSnapshot(id).getTitle()).isEqualTo("Cached task");
+        assertThat(hits()).isEqualTo(hitsBefore + 1);
+
+        // When - the task changes
+        taskService.updateTask(id, TaskUpdateDTO.builder().title("Renamed task").build());
+        taskService.toggleTaskCompletion(id);
+
+        // Then
+        TaskRow snapshot = taskService.getTaskSnapshot(id);
+        assertThat(snapshot.getTitle()).isEqualTo("Renamed task");
+        assertThat(snapshot.isCompleted()).isTrue();
+
+        // When - the task is deleted
+        taskService.deleteTask(id);
+
+        // Then
+        assertThrows(BizException.class, () -> taskService.getTaskSnapshot(id));
+    }
+
+    @Test
+    @DisplayName("Cached task pages should never outlive a committed change")
+    void taskPages_shouldFollowCommittedChanges() {
+        // Given
+        TaskFilter filter = TaskFilter.of(null, null, null, null, null, "pagecached");
+        Task task = taskService.createTask(TaskCreateDTO.builder().title("Pagecached one").build());
+        double hitsBefore = hits(TaskPageCache.NAME);
+
+        try {
+            // When/Then - the second listing is a hit
+            assertThat(titles(filter)).containsExactly("Pagecached one");
+            assertThat(titles(filter)).containsExactly("Pagecached one");
+            assertThat(hits(TaskPageCache.NAME)).isEqualTo(hitsBefore + 1);
+
+            // When - the task changes
+            taskService.updateTask(task.getId(), TaskUpdateDTO.builder().title("Pagecached two").build());
+
+            // Then
+            assertThat(titles(filter)).containsExactly("Pagecached two");
+        } finally {
+            taskService.deleteTask(task.getId());
+        }
+        assertThat(titles(filter)).isEmpty();
+    }
+
+    private List<String> titles(TaskFilter filter) {
+        return taskService.listTasks(filter, PageRequest.of(0, 10), TaskCountMode.exact)
+                .map(TaskRow::getTitle)
+                .getContent();
+    }
+
+    private double hits() {
+        return hits(TaskCache.NAME);
+    }
+
+    private double hits(String cache) {
+        return meterRegistry.get("cache.gets").tags("cache", cache, "result", "hit")
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,176 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskChangeFeedProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskChangeFeedTest {
+
+    private final List<Runnable> sends = new ArrayList<>();
+
+    private TaskChangeFeed feed;
+
+    private RecordingEmitter emitter;
+
+    @BeforeEach
+    void setUp() {
+        TaskChangeFeedProperties properties = new TaskChangeFeedProperties();
+        properties.setBufferSize(2);
+        feed = new TaskChangeFeed(properties, sends::add);
+        emitter = new RecordingEmitter();
+        feed.subscribe(emitter);
+    }
+
+    @Test
+    @DisplayName("Given changes waiting to be sent, when a task changes again, then send only its latest change")
+    void givenPendingChanges_whenTaskChangesAgain_thenCoalesce() {
+        // When
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.CREATED, task(1L)));
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.CREATED, task(2L)));
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.TOGGLED, task(1L)));
+        sendAll();
+
+        // Then
+        assertThat(emitter.events).containsExactly("toggled 1", "created 2");
+    }
+
+    @Test
+    @DisplayName("Given a full buffer, when another task changes, then drop the buffer and signal a resync")
+    void givenFullBuffer_whenAnotherTaskChanges_thenSignalResync() {
+        // When
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task(1L)));
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task(2L)));
+        feed.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task(3L)));
+        feed.onTaskChanged(TaskChangedEvent.deleted(4L));
+        sendAll();
+        feed.onTaskChanged(TaskChangedEvent.deleted(5L));
+        sendAll();
+
+        // Then
+        assertThat(emitter.events).containsExactly("resync", "deleted 5");
+    }
+
+    @Test
+    @DisplayName("Given a subscriber that went away, when sending to it fails, then unsubscribe it")
+    void givenGoneSubscriber_whenSendFails_thenUnsubscribe() {
+        // Given
+        emitter.failing = true;
+
+        // When
+        feed.onTaskChanged(TaskChangedEvent.deleted(1L));
+        sendAll();
+
+        // Then
+        assertThat(feed.subscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Given a subscriber whose send blocks, when it overruns the send timeout, then drop it and keep serving the others")
+    void givenBlockedSend_whenSendTimeoutPasses_thenDropSubscriberAndServeOthers() throws Exception {
+        // Given - a single sender thread, stuck writing to the first subscriber
+        TaskChangeFeedProperties properties = new TaskChangeFeedProperties();
+        properties.setSendTimeout(Duration.ZERO);
+        ExecutorService sender = Executors.newFixedThreadPool(1);
+        TaskChangeFeed blockingFeed = new TaskChangeFeed(properties, sender);
+        BlockingEmitter blocked = new BlockingEmitter();
+        blockingFeed.subscribe(blocked);
+        blockingFeed.onTaskChanged(TaskChangedEvent.deleted(1L));
+        assertThat(blocked.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        RecordingEmitter healthy = new RecordingEmitter();
+        blockingFeed.subscribe(healthy);
+
+        try {
+            // When
+            blockingFeed.dropStalledSubscribers();
+            blockingFeed.onTaskChanged(TaskChangedEvent.deleted(2L));
+
+            // Then - another thread serves the healthy subscriber
+            await(() -> !healthy.events.isEmpty());
+            assertThat(healthy.events).containsExactly("deleted 2");
+            assertThat(blockingFeed.subscriberCount()).isEqualTo(1);
+
+            // Once the blocked write returns, its stand-in thread goes away
+            blocked.release.countDown();
+            await(() -> ((ThreadPoolExecutor) sender).getCorePoolSize() == 1);
+        } finally {
+            blocked.release.countDown();
+            sender.shutdownNow();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private void sendAll() {
+        while (!sends.isEmpty()) {
+            sends.remove(0).run();
+        }
+    }
+
+    private static Task task(Long id) {
+        return Task.builder().id(id).title("Task " + id).build();
+    }
+
+    private static final class BlockingEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern NAME = Pattern.compile("event:(\\w+)");
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            List<Object> parts = builder.build().stream().map(part -> part.getData()).toList();
+            Matcher name = NAME.matcher(parts.get(0).toString());
+            assertThat(name.find()).isTrue();
+            events.add(parts.get(1) instanceof Map<?, ?> data
+                    ? name.group(1) + " " + data.get("taskId")
+                    : name.group(1));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelMode;
+import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.web.dto.LabelDTO;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+import com.happiness.conan.web.dto.TaskUpdateDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction, so task changes commit and reach the index.
+ */
+@SpringBootTest(properties = {
+        "conan.search.mode=index",
+        "conan.label-index.enabled=true",
+        "conan.page-cache.enabled=true"
+})
+@ActiveProfiles("test")
+class TaskLabelIndexIT {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private LabelRepository labelRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TaskLabelIndex labelIndex;
+
+    private final List<Long> createdTaskIds = new ArrayList<>();
+    private Label featureLabel;
+    private Label bugLabel;
+
+    @BeforeEach
+    void setUp() {
+        featureLabel = labelRepository.save(Label.builder().name("Feature").color("blue").build());
+        bugLabel = labelRepository.save(Label.builder().name("Bug").color("red").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        createdTaskIds.forEach(taskService::deleteTask);
+        labelRepository.deleteAll(List.of(featureLabel, bugLabel));
+    }
+
+    @Test
+    @DisplayName("Label filters with the label index should follow committed label changes")
+    void labelFilterWithIndex_shouldFollowCommittedChanges() {
+        // Given
+        Task both = create("Login feature with a bug", featureLabel, bugLabel);
+        Task feature = create("Signup feature", featureLabel);
+
+        // When/Then
+        assertThat(tasksWithLabels(featureLabel, bugLabel)).containsExactly("Login feature with a bug");
+        assertThat(tasksWithLabels(featureLabel)).containsExactlyInAnyOrder("Login feature with a bug", "Signup feature");
+
+        // When - labels change
+        taskService.updateTask(feature.getId(), TaskUpdateDTO.builder()
+                .labels(List.of(new LabelDTO(bugLabel.getId(), null, null)))
+                .build());
+        taskService.deleteTask(both.getId());
+        createdTaskIds.remove(both.getId());
+
+        // Then
+        assertThat(tasksWithLabels(featureLabel)).isEmpty();
+        assertThat(tasksWithLabels(bugLabel)).containsExactly("Signup feature");
+    }
+
+    @Test
+    @DisplayName("Bulk delete by label should select tasks from the database, not from a stale label index")
+    void bulkDeleteByLabelWithIndex_shouldIgnoreStaleIndex() {
+        // Given - labels changed behind the index, as another instance would
+        Task relabelled = create("Relabelled elsewhere", featureLabel);
+        Task labelled = create("Labelled elsewhere");
+        jdbcTemplate.update("DELETE FROM task_labels WHERE task_id = ?", relabelled.getId());
+        jdbcTemplate.update("INSERT INTO task_labels (task_id, label_id) VALUES (?, ?)",
+                labelled.getId(), featureLabel.getId());
+
+        // When
+        int deleted = taskService.bulkDeleteTasks(TaskFilter.builder().labelIds(List.of(featureLabel.getId())).build());
+        createdTaskIds.remove(labelled.getId());
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(taskRepository.existsById(labelled.getId())).isFalse();
+        assertThat(taskRepository.existsById(relabelled.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("Any and none label filters with the label index should match the database")
+    void anyAndNoneLabelFiltersWithIndex_shouldMatchDatabase() {
+        // Given
+        create("Login feature with a bug", featureLabel, bugLabel);
+        create("Signup bug", bugLabel);
+        create("Unlabelled chore");
+
+        // When/Then
+        assertThat(tasksWithLabels(TaskLabelMode.any, featureLabel, bugLabel))
+                .containsExactlyInAnyOrder("Login feature with a bug", "Signup bug");
+        assertThat(tasksWithLabels(TaskLabelMode.none, featureLabel)).contains("Signup bug", "Unlabelled chore")
+                .doesNotContain("Login feature with a bug");
+    }
+
+    @Test
+    @DisplayName("Deleting a label should drop it from the label index")
+    void deleteLabel_shouldDropItFromIndex() {
+        // Given
+        Task task = create("Signup feature", featureLabel);
+        assertThat(labelIndex.findWithAnyLabel(List.of(featureLabel.getId()))).contains(List.of(task.getId()));
+        jdbcTemplate.update("DELETE FROM task_labels WHERE label_id = ?", featureLabel.getId());
+
+        // When
+        labelRepository.delete(featureLabel);
+
+        // Then
+        assertThat(labelIndex.findWithAnyLabel(List.of(featureLabel.getId()))).contains(List.of());
+    }
+
+    private Task create(String title, Label... labels) {
+        Task task = taskService.createTask(TaskCreateDTO.builder()
+                .title(title)
+                .labels(Arrays.stream(labels).map(label -> new LabelDTO(label.getId(), null, null)).toList())
+                .build());
+        createdTaskIds.add(task.getId());
+        return task;
+    }
+
+    private List<String> tasksWithLabels(Label... labels) {
+        return tasksWithLabels(TaskLabelMode.all, labels);
+    }
+
+    private List<String> tasksWithLabels(TaskLabelMode labelMode, Label... labels) {
+        List<Long> labelIds = Arrays.stream(labels).map(Label::getId).toList();
+        return taskService.listTasks(TaskFilter.builder().labelIds(labelIds).labelMode(labelMode).build(),
+                        PageRequest.of(0, 10), TaskCountMode.exact)
+                .map(TaskRow::getTitle)
+                .getContent();
+    }
+}
@@ -0,0 +1,160 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskLabelIndexProperties;
+import com.happiness.conan.domain.event.LabelChangedEvent;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.model.Label;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskLabelRow;
+import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskLabelIndexTest {
+
+    private static final long FEATURE = 10L;
+    private static final long BUG = 20L;
+    private static final long TECH_DEBT = 30L;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskLabelIndexProperties properties;
+
+    private TaskLabelIndex labelIndex;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TaskLabelIndexProperties();
+        properties.setEnabled(true);
+        labelIndex = new TaskLabelIndex(taskRepository, properties);
+
+        // Task 1: feature, task 2: bug, task 3: feature and tech debt, task 4: no label
+        when(taskRepository.findAfter(isNull(), any(TaskCursor.class), anyInt()))
+                .thenReturn(List.of(row(1L), row(2L), row(3L), row(4L)))
+                .thenReturn(List.of());
+        when(taskRepository.findLabelIdsByTaskIdIn(anyCollection()))
+                .thenReturn(List.of(labelRow(1L, FEATURE), labelRow(2L, BUG), labelRow(3L, FEATURE),
+                        labelRow(3L, TECH_DEBT)));
+        labelIndex.build();
+    }
+
+    @Test
+    @DisplayName("Given built index, when filtering by labels, then combine the label bitmaps")
+    void givenBuiltIndex_whenFindByLabels_thenCombineBitmaps() {
+        assertThat(labelIndex.findWithAllLabels(List.of(FEATURE, TECH_DEBT))).contains(List.of(3L));
+        assertThat(labelIndex.findWithAllLabels(List.of(FEATURE, 99L))).contains(List.of());
+        assertThat(labelIndex.findWithAnyLabel(List.of(BUG, TECH_DEBT))).contains(List.of(2L, 3L));
+        assertThat(labelIndex.findWithNoLabel(List.of(FEATURE))).contains(List.of(2L, 4L));
+    }
+
+    @Test
+    @DisplayName("Given task changes after commit, when filtering by labels, then reflect the latest labels")
+    void givenTaskChanges_whenFindByLabels_thenReflectLatestLabels() {
+        // When
+        labelIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task(1L, BUG)));
+        labelIndex.onTaskChanged(TaskChangedEvent.deleted(2L));
+        labelIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, task(5L, FEATURE)));
+
+        // Then
+        assertThat(labelIndex.findWithAllLabels(List.of(FEATURE))).contains(List.of(3L, 5L));
+        assertThat(labelIndex.findWithAllLabels(List.of(BUG))).contains(List.of(1L));
+        assertThat(labelIndex.findWithNoLabel(List.of(FEATURE))).contains(List.of(1L, 4L));
+    }
+
+    @Test
+    @DisplayName("Given a task id beyond 32 bits, when filtering by labels, then find it")
+    void givenLargeTaskId_whenFindByLabels_thenFindIt() {
+        // Given
+        long taskId = Integer.MAX_VALUE + 10L;
+
+        // When
+        labelIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.CREATED, task(taskId, BUG)));
+
+        // Then
+        assertThat(labelIndex.findWithAllLabels(List.of(BUG))).contains(List.of(2L, taskId));
+        assertThat(labelIndex.findWithNoLabel(List.of(FEATURE))).contains(List.of(2L, 4L, taskId));
+    }
+
+    @Test
+    @DisplayName("Given a deleted label, when filtering by it, then no task carries it any more")
+    void givenDeletedLabel_whenFindByLabels_thenNoTaskCarriesIt() {
+        // When
+        labelIndex.onLabelChanged(LabelChangedEvent.saved(BUG));
+        labelIndex.onLabelChanged(LabelChangedEvent.deleted(FEATURE));
+
+        // Then
+        assertThat(labelIndex.findWithAnyLabel(List.of(FEATURE))).contains(List.of());
+        assertThat(labelIndex.findWithAllLabels(List.of(BUG))).contains(List.of(2L));
+        assertThat(labelIndex.findWithNoLabel(List.of(FEATURE))).contains(List.of(1L, 2L, 3L, 4L));
+    }
+
+    @Test
+    @DisplayName("Given a transaction that changed tasks, when filtering by labels in it, then let the database filter")
+    void givenTransactionWithTaskChanges_whenFindByLabels_thenReturnEmpty() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            labelIndex.onTaskChangePending(TaskChangedEvent.deleted(1L));
+
+            // When/Then - the index has not seen the uncommitted deletion
+            assertThat(labelIndex.findWithAllLabels(List.of(FEATURE))).isEmpty();
+            assertThat(labelIndex.findWithNoLabel(List.of(BUG))).isEmpty();
+
+            // Once the transaction completes, the index answers again
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(labelIndex.findWithAllLabels(List.of(FEATURE))).contains(List.of(1L, 3L));
+        } finally {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Given too many candidates, when filtering by labels, then let the database filter")
+    void givenTooManyCandidates_whenFindByLabels_thenReturnEmpty() {
+        // Given
+        properties.setMaxCandidates(1);
+
+        // When/Then
+        assertThat(labelIndex.findWithAllLabels(List.of(FEATURE))).isEmpty();
+        assertThat(labelIndex.findWithAllLabels(List.of(BUG))).contains(List.of(2L));
+    }
+
+    private static TaskRow row(Long id) {
+        return new TaskRow(id, "Task " + id, null, null, Task.Priority.medium, false,
+                LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(id), LocalDateTime.now(), 0L, List.of());
+    }
+
+    private static TaskLabelRow labelRow(Long taskId, Long labelId) {
+        return new TaskLabelRow(taskId, labelId);
+    }
+
+    private static Task task(Long id, Long labelId) {
+        return Task.builder()
+                .id(id)
+                .title("Task " + id)
+                .labels(Set.of(Label.builder().id(labelId).build()))
+                .build();
+    }
+}
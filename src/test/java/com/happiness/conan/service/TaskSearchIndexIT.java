@@ -0,0 +1,83 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.web.dto.TaskCreateDTO;
+import com.happiness.conan.web.dto.TaskUpdateDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs without a test transaction, so task changes commit and reach the index.
+ */
+@SpringBootTest(properties = {
+        "conan.search.mode=index",
+        "conan.label-index.enabled=true",
+        "conan.page-cache.enabled=true"
+})
+@ActiveProfiles("test")
+class TaskSearchIndexIT {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSearchIndex searchIndex;
+
+    private final List<Long> createdTaskIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        createdTaskIds.forEach(taskService::deleteTask);
+    }
+
+    @Test
+    @DisplayName("Search in index mode should follow created, updated and deleted tasks")
+    void searchInIndexMode_shouldFollowCommittedChanges() {
+        // Given
+        Task login = create("Implement login", "OAuth2 login flow");
+        Task bug = create("Fix login bug", "Validation error in TCK-4242");
+        create("Refactor authentication", null);
+
+        // When/Then
+        assertThat(search("login")).containsExactlyInAnyOrder("Implement login", "Fix login bug");
+        assertThat(search("tck-42")).containsExactly("Fix login bug");
+        // Candidates are a superset, the database still applies the exact substring match
+        assertThat(search("login bug")).containsExactly("Fix login bug");
+
+        // When - the title changes and a task goes away
+        taskService.updateTask(login.getId(), TaskUpdateDTO.builder().title("Implement signup").build());
+        taskService.deleteTask(bug.getId());
+        createdTaskIds.remove(bug.getId());
+
+        // Then
+        assertThat(searchIndex.findCandidates("signup")).contains(List.of(login.getId()));
+        assertThat(search("login")).containsExactly("Implement signup");
+        assertThat(search("bug")).isEmpty();
+    }
+
+    private Task create(String title, String description) {
+        Task task = taskService.createTask(TaskCreateDTO.builder().title(title).description(description).build());
+        createdTaskIds.add(task.getId());
+        return task;
+    }
+
+    private List<String> search(String term) {
+        return taskService.listTasks(TaskFilter.builder().search(term).build(), PageRequest.of(0, 10),
+                        TaskCountMode.exact)
+                .map(TaskRow::getTitle)
+                .getContent();
+    }
+}
@@ -0,0 +1,151 @@
+package com.happiness.conan.service;
+
+import com.happiness.conan.config.TaskSearchProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
+import com.happiness.conan.domain.model.Task;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSearchIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskSearchProperties searchProperties;
+
+    private TaskSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchProperties = new TaskSearchProperties();
+        searchProperties.setMode(TaskSearchMode.index);
+        searchIndex = new TaskSearchIndex(taskRepository, searchProperties);
+    }
+
+    @Test
+    @DisplayName("Given built index, when findCandidates is called, then return tasks containing every token")
+    void givenBuiltIndex_whenFindCandidates_thenMatchSubstringsOfTerms() {
+        // Given
+        givenTasks(row(1L, "Implement login", "OAuth2 flow"),
+                row(2L, "Fix login bug", "Validation error in TCK-4242"),
+                row(3L, "Refactor authentication", null));
+
+        // When/Then
+        assertThat(searchIndex.findCandidates("login")).contains(List.of(1L, 2L));
+        assertThat(searchIndex.findCandidates("LOG")).contains(List.of(1L, 2L));
+        assertThat(searchIndex.findCandidates("ck-424")).contains(List.of(2L));
+        assertThat(searchIndex.findCandidates("h2 fl")).contains(List.of(1L));
+        assertThat(searchIndex.findCandidates("deploy")).contains(List.of());
+    }
+
+    @Test
+    @DisplayName("Given task changes after commit, when findCandidates is called, then reflect the latest state")
+    void givenTaskChanges_whenFindCandidates_thenReflectLatestState() {
+        // Given
+        givenTasks(row(1L, "Implement login", null), row(2L, "Fix login bug", null));
+
+        // When
+        searchIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, Task.builder().id(1L).title("Implement signup").build()));
+        searchIndex.onTaskChanged(TaskChangedEvent.deleted(2L));
+        searchIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, Task.builder().id(3L).title("Login audit").build()));
+
+        // Then
+        assertThat(searchIndex.findCandidates("login")).contains(List.of(3L));
+        assertThat(searchIndex.findCandidates("signup")).contains(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Given the last task with a term changed, when findCandidates is called, then no longer match inside that term")
+    void givenTermDropped_whenFindCandidates_thenForgetItsSuffixes() {
+        // Given
+        givenTasks(row(1L, "Implement login", null), row(2L, "Catalog", null));
+
+        // When
+        searchIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, Task.builder().id(1L).title("Implement signup").build()));
+
+        // Then
+        assertThat(searchIndex.findCandidates("ogin")).contains(List.of());
+        assertThat(searchIndex.findCandidates("og")).contains(List.of(2L));
+        assertThat(searchIndex.findCandidates("gnu")).contains(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Given a very long token, when it is indexed, then store no suffixes of it and still match inside it")
+    void givenVeryLongToken_whenIndexed_thenScanItInsteadOfStoringSuffixes() {
+        // Given - an encoded blob in a description
+        String blob = "a1b2c3d4".repeat(1_250);
+        givenTasks(row(1L, "Attach upload", "data " + blob), row(2L, "Other", null));
+
+        // Then
+        assertThat(searchIndex.suffixCount()).isLessThan(100);
+        assertThat(searchIndex.findCandidates("c3d4a1")).contains(List.of(1L));
+        assertThat(searchIndex.findCandidates("upload c3d4")).contains(List.of(1L));
+
+        // When - the blob is edited out
+        searchIndex.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED,
+                Task.builder().id(1L).title("Attach upload").build()));
+
+        // Then
+        assertThat(searchIndex.findCandidates("c3d4a1")).contains(List.of());
+    }
+
+    @Test
+    @DisplayName("Given too many candidates or no token, when findCandidates is called, then let the database search")
+    void givenUnanswerableSearch_whenFindCandidates_thenReturnEmpty() {
+        // Given
+        searchProperties.setIndexMaxCandidates(1);
+        givenTasks(row(1L, "Implement login", null), row(2L, "Fix login bug", null));
+
+        // When/Then
+        assertThat(searchIndex.findCandidates("login")).isEmpty();
+        assertThat(searchIndex.findCandidates("%%")).isEmpty();
+        assertThat(searchIndex.findCandidates("implement")).contains(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Given another search mode, when the application starts, then leave the index unbuilt")
+    void givenOtherSearchMode_whenBuild_thenSkip() {
+        // Given
+        searchProperties.setMode(TaskSearchMode.like);
+
+        // When
+        searchIndex.build();
+
+        // Then
+        assertThat(searchIndex.findCandidates("login")).isEmpty();
+        verify(taskRepository, never()).findAfter(any(), any(), anyInt());
+    }
+
+    private void givenTasks(TaskRow... rows) {
+        when(taskRepository.findAfter(isNull(), any(TaskCursor.class), anyInt()))
+                .thenReturn(List.of(rows))
+                .thenReturn(List.of());
+        searchIndex.build();
+    }
+
+    private static TaskRow row(Long id, String title, String description) {
+        return new TaskRow(id, title, description, null, Task.Priority.medium, false,
+                LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(id), LocalDateTime.now(), 0L, List.of());
+    }
+}
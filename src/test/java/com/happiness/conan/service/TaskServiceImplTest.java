@@ -1,10 +1,29 @@
 package com.happiness.conan.service;
 
+import com.happiness.conan.config.TaskCacheProperties;
+import com.happiness.conan.config.TaskChangesProperties;
+import com.happiness.conan.config.TaskExportProperties;
+import com.happiness.conan.config.TaskImportProperties;
+import com.happiness.conan.config.TaskPageCacheProperties;
+import com.happiness.conan.config.TaskSearchProperties;
+import com.happiness.conan.domain.event.TaskChangedEvent;
 import com.happiness.conan.domain.model.Label;
 import com.happiness.conan.domain.model.Task;
-import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.model.TaskDeletion;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskDeletionRepository;
+import com.happiness.conan.domain.repository.TaskFilter;
+import com.happiness.conan.domain.repository.TaskLabelMode;
+import com.happiness.conan.domain.repository.TaskLabelRow;
+import com.happiness.conan.domain.repository.TaskPatch;
 import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
+import com.happiness.conan.domain.repository.TaskSearchMode;
+import com.happiness.conan.domain.repository.TaskSpecifications;
 import com.happiness.conan.exception.BizException;
+import com.happiness.conan.exception.TaskVersionMismatchException;
 import com.happiness.conan.web.dto.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,18 +33,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -37,13 +67,47 @@ class TaskServiceImplTest {
     private TaskRepository taskRepository;
 
     @Mock
-    private LabelRepository labelRepository;
+    private TaskDeletionRepository taskDeletionRepository;
+
+    @Mock
+    private LabelCatalog labelCatalog;
+
+    @Spy
+    private TaskSearchProperties searchProperties = new TaskSearchProperties();
+
+    @Spy
+    private TaskChangesProperties changesProperties = new TaskChangesProperties();
+
+    @Spy
+    private TaskExportProperties exportProperties = new TaskExportProperties();
+
+    @Spy
+    private TaskImportProperties importProperties = new TaskImportProperties();
+
+    @Mock
+    private TaskSearchIndex searchIndex;
+
+    @Mock
+    private TaskLabelIndex labelIndex;
+
+    @Spy
+    private TaskCache taskCache = new TaskCache(new TaskCacheProperties());
+
+    @Spy
+    private TaskPageCache pageCache = new TaskPageCache(pageCacheProperties());
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
 
     @InjectMocks
     private TaskServiceImpl taskService;
 
     private Task sampleTask;
     private List<Task> taskList;
+    private List<TaskRow> rowList;
 
     @BeforeEach
     void setUp() {
@@ -61,6 +125,16 @@ class TaskServiceImplTest {
                 .build();
 
         taskList = List.of(sampleTask);
+
+        rowList = List.of(new TaskRow(sampleTask.getId(), sampleTask.getTitle(), sampleTask.getDescription(),
+                sampleTask.getDueDate(), sampleTask.getPriority(), sampleTask.isCompleted(),
+                sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of()));
+    }
+
+    private static TaskPageCacheProperties pageCacheProperties() {
+        TaskPageCacheProperties properties = new TaskPageCacheProperties();
+        properties.setEnabled(true);
+        return properties;
     }
 
     @Nested
@@ -91,7 +165,7 @@ class TaskServiceImplTest {
             // Given
             Pageable pageable = PageRequest.of(0, 10);
             Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
-            when(taskRepository.findByIsCompleted(anyBoolean(), any(Pageable.class))).thenReturn(
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(
                     taskPage);
 
             // When
@@ -100,7 +174,8 @@ class TaskServiceImplTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(taskRepository).findByIsCompleted(eq(false), eq(pageable));
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
+            verify(taskRepository, never()).findAll(any(Pageable.class));
         }
 
         @Test
@@ -109,8 +184,8 @@ class TaskServiceImplTest {
             // Given
             Pageable pageable = PageRequest.of(0, 10);
             Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
-            when(taskRepository.findByPriority(any(Task.Priority.class),
-                    any(Pageable.class))).thenReturn(taskPage);
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(taskPage);
 
             // When
             Page<Task> result = taskService.findTasks(null, "high", null, null, null, null,
@@ -118,7 +193,7 @@ class TaskServiceImplTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(taskRepository).findByPriority(eq(Task.Priority.high), eq(pageable));
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
         }
 
         @Test
@@ -145,8 +220,8 @@ class TaskServiceImplTest {
             Pageable pageable = PageRequest.of(0, 10);
             List<Long> labelIds = List.of(1L, 2L);
             Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
-            when(taskRepository.findByLabelIdsAll(anyList(), anyLong(),
-                    any(Pageable.class))).thenReturn(taskPage);
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(taskPage);
 
             // When
             Page<Task> result = taskService.findTasks(null, null, labelIds, null, null, null,
@@ -154,7 +229,7 @@ class TaskServiceImplTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(taskRepository).findByLabelIdsAll(eq(labelIds), eq(2L), eq(pageable));
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
         }
 
         @Test
@@ -165,8 +240,7 @@ class TaskServiceImplTest {
             LocalDate start = LocalDate.now();
             LocalDate end = LocalDate.now().plusDays(7);
             Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
-            when(taskRepository.findByDueDateBetween(any(LocalDateTime.class),
-                    any(LocalDateTime.class), any(Pageable.class)))
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class)))
                     .thenReturn(taskPage);
 
             // When
@@ -174,11 +248,7 @@ class TaskServiceImplTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(taskRepository).findByDueDateBetween(
-                    eq(start.atStartOfDay()),
-                    eq(end.atTime(LocalTime.MAX)),
-                    eq(pageable)
-            );
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
         }
 
         @Test
@@ -188,8 +258,7 @@ class TaskServiceImplTest {
             Pageable pageable = PageRequest.of(0, 10);
             String search = "test";
             Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
-            when(taskRepository.findByTitleOrDescriptionContainingIgnoreCase(anyString(),
-                    any(Pageable.class)))
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class)))
                     .thenReturn(taskPage);
 
             // When
@@ -198,8 +267,262 @@ class TaskServiceImplTest {
 
             // Then
             assertThat(result).isNotNull();
-            verify(taskRepository).findByTitleOrDescriptionContainingIgnoreCase(eq(search),
-                    eq(pageable));
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("Given estimate count mode on the last page, when findTasks is called, then skip the estimate")
+        void givenEstimateCountOnLastPage_whenFindTasks_thenUseExactTotalWithoutEstimating() {
+            // Given
+            Pageable pageable = PageRequest.of(2, 10);
+            when(taskRepository.findSlice(isNull(), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(rowList, pageable, false));
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().build(), pageable, TaskCountMode.estimate);
+
+            // Then
+            assertThat(result).isInstanceOf(Page.class);
+            assertThat(((Page<TaskRow>) result).getTotalElements()).isEqualTo(21);
+            verify(taskRepository, never()).estimateCount(any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("Given estimate count mode with more pages, when findTasks is called, then estimate the total")
+        void givenEstimateCountWithMorePages_whenFindTasks_thenEstimateTotal() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 1);
+            when(taskRepository.findSlice(isNull(), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(rowList, pageable, true));
+            when(taskRepository.estimateCount(isNull(), anyLong())).thenReturn(5_000L);
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().build(), pageable, TaskCountMode.estimate);
+
+            // Then
+            assertThat(((Page<TaskRow>) result).getTotalElements()).isEqualTo(5_000L);
+        }
+
+        @Test
+        @DisplayName("Given count mode none, when findTasks is called, then return a slice without total")
+        void givenNoCountMode_whenFindTasks_thenReturnSlice() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findSlice(any(Specification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(rowList, pageable, false));
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().completed(true).build(), pageable,
+                    TaskCountMode.none);
+
+            // Then
+            assertThat(result).isNotInstanceOf(Page.class);
+            verify(taskRepository, never()).count(any(Specification.class));
+        }
+
+        @Test
+        @DisplayName("Given full-text search sorted by relevance, when listTasks is called, then let the ranking order rows")
+        void givenFullTextRelevanceSort_whenListTasks_thenDropPageableSort() {
+            // Given
+            searchProperties.setMode(TaskSearchMode.fulltext);
+            Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, TaskSpecifications.RELEVANCE));
+            when(taskRepository.findPage(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of()));
+
+            // When
+            taskService.listTasks(TaskFilter.builder().search("login").build(), pageable, TaskCountMode.exact);
+
+            // Then
+            verify(taskRepository).findPage(any(Specification.class), eq(PageRequest.of(0, 10)));
+        }
+
+        @Test
+        @DisplayName("Given LIKE search sorted by relevance, when listTasks is called, then sort by creation time")
+        void givenLikeRelevanceSort_whenListTasks_thenSortByCreatedAt() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, TaskSpecifications.RELEVANCE));
+            when(taskRepository.findPage(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new PageImpl<>(List.of()));
+
+            // When
+            taskService.listTasks(TaskFilter.builder().search("login").build(), pageable, TaskCountMode.exact);
+
+            // Then
+            verify(taskRepository).findPage(any(Specification.class),
+                    eq(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"))));
+        }
+
+        @Test
+        @DisplayName("Given fuzzy search in trigram mode, when listTasks is called, then set the similarity threshold")
+        void givenFuzzySearchInTrigramMode_whenListTasks_thenSetSimilarityThreshold() {
+            // Given
+            searchProperties.setMode(TaskSearchMode.trigram);
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findPage(any(Specification.class), eq(pageable)))
+                    .thenReturn(new PageImpl<>(List.of()));
+
+            // When
+            taskService.listTasks(TaskFilter.builder().search("logn").fuzzy(true).build(), pageable,
+                    TaskCountMode.exact);
+            taskService.listTasks(TaskFilter.builder().search("logn").fuzzy(true).similarity(1.5).build(), pageable,
+                    TaskCountMode.exact);
+
+            // Then
+            verify(taskRepository).setSimilarityThreshold(0.6);
+            verify(taskRepository).setSimilarityThreshold(1.0);
+        }
+
+        @Test
+        @DisplayName("Given fuzzy search in LIKE mode, when listTasks is called, then keep the substring match")
+        void givenFuzzySearchInLikeMode_whenListTasks_thenSkipSimilarityThreshold() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findPage(any(Specification.class), eq(pageable)))
+                    .thenReturn(new PageImpl<>(List.of()));
+
+            // When
+            taskService.listTasks(TaskFilter.builder().search("logn").fuzzy(true).build(), pageable,
+                    TaskCountMode.exact);
+
+            // Then
+            verify(taskRepository, never()).setSimilarityThreshold(anyDouble());
+        }
+
+        @Test
+        @DisplayName("Given index search mode, when listTasks is called, then query only the indexed candidates")
+        void givenIndexSearchMode_whenListTasks_thenQueryCandidates() {
+            // Given
+            searchProperties.setMode(TaskSearchMode.index);
+            Pageable pageable = PageRequest.of(0, 10);
+            when(searchIndex.findCandidates("login")).thenReturn(Optional.of(List.of(1L)));
+            when(taskRepository.findPage(any(Specification.class), eq(pageable)))
+                    .thenReturn(new PageImpl<>(rowList));
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().search("login").build(), pageable,
+                    TaskCountMode.exact);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            verify(searchIndex).findCandidates("login");
+        }
+
+        @Test
+        @DisplayName("Given the label index, when listTasks filters by labels, then query only the labelled candidates")
+        void givenLabelIndex_whenListTasksByLabels_thenQueryCandidates() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(labelIndex.isEnabled()).thenReturn(true);
+            when(labelIndex.findWithAllLabels(List.of(1L, 2L))).thenReturn(Optional.of(List.of(1L)));
+            when(taskRepository.findPage(any(Specification.class), eq(pageable)))
+                    .thenReturn(new PageImpl<>(rowList));
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().labelIds(List.of(1L, 2L)).build(),
+                    pageable, TaskCountMode.exact);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            verify(labelIndex).findWithAllLabels(List.of(1L, 2L));
+        }
+
+        @Test
+        @DisplayName("Given the label index and label mode none, when listTasks is called, then exclude the labelled tasks")
+        void givenLabelIndexAndNoneMode_whenListTasks_thenQueryUnlabelledCandidates() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(labelIndex.isEnabled()).thenReturn(true);
+            when(labelIndex.findWithNoLabel(List.of(1L))).thenReturn(Optional.of(List.of(1L)));
+            when(taskRepository.findPage(any(Specification.class), eq(pageable)))
+                    .thenReturn(new PageImpl<>(rowList));
+
+            // When
+            taskService.listTasks(TaskFilter.builder().labelIds(List.of(1L)).labelMode(TaskLabelMode.none).build(),
+                    pageable, TaskCountMode.exact);
+
+            // Then
+            verify(labelIndex).findWithNoLabel(List.of(1L));
+            verify(labelIndex, never()).findWithAllLabels(any());
+        }
+
+        @Test
+        @DisplayName("Given listed rows, when listTasks is called, then attach catalog labels from a single query")
+        void givenRows_whenListTasks_thenAttachLabelsFromOneQuery() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findPage(isNull(), eq(pageable)))
+                    .thenReturn(new PageImpl<>(rowList, pageable, 1));
+            when(taskRepository.findLabelIdsByTaskIdIn(List.of(1L)))
+                    .thenReturn(List.of(new TaskLabelRow(1L, 7L)));
+            when(labelCatalog.resolve(List.of(7L)))
+                    .thenReturn(List.of(Label.builder().id(7L).name("Feature").color("blue").build()));
+
+            // When
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().build(), pageable, TaskCountMode.exact);
+
+            // Then
+            assertThat(result.getContent().get(0).getLabels())
+                    .extracting(Label::getId, Label::getName)
+                    .containsExactly(tuple(7L, "Feature"));
+            verify(taskRepository, never()).findAll(any(Pageable.class));
+        }
+
+        @Test
+        @DisplayName("Given a listed page, when the same filter is listed again, then read the cached ids back by key")
+        void givenListedPage_whenListedAgain_thenReadCachedIds() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findPage(any(), eq(pageable)))
+                    .thenReturn(new PageImpl<>(rowList, pageable, 21));
+            when(taskRepository.findSlice(any(), eq(Pageable.unpaged())))
+                    .thenReturn(new SliceImpl<>(rowList));
+            taskService.listTasks(TaskFilter.builder().labelIds(List.of(2L, 1L)).build(), pageable, TaskCountMode.exact);
+
+            // When - same labels in another order
+            Slice<TaskRow> result = taskService.listTasks(TaskFilter.builder().labelIds(List.of(1L, 2L)).build(),
+                    pageable, TaskCountMode.exact);
+
+            // Then
+            assertThat(result).isInstanceOf(Page.class);
+            assertThat(((Page<TaskRow>) result).getTotalElements()).isEqualTo(21);
+            assertThat(result.getContent()).extracting(TaskRow::getId).containsExactly(1L);
+            verify(taskRepository, times(1)).findPage(any(), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("Given a listed page, when a task change commits, then list the page again")
+        void givenListedPage_whenTaskChanges_thenListAgain() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            when(taskRepository.findSlice(isNull(), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(rowList, pageable, false));
+            taskService.listTasks(TaskFilter.builder().build(), pageable, TaskCountMode.none);
+
+            // When
+            pageCache.onTaskChanged(TaskChangedEvent.deleted(1L));
+            taskService.listTasks(TaskFilter.builder().build(), pageable, TaskCountMode.none);
+
+            // Then
+            verify(taskRepository, times(2)).findSlice(isNull(), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("Given several filters, when findTasks is called, then run a single combined query")
+        void givenSeveralFilters_whenFindTasks_thenRunSingleCombinedQuery() {
+            // Given
+            Pageable pageable = PageRequest.of(0, 10);
+            Page<Task> taskPage = new PageImpl<>(taskList, pageable, taskList.size());
+            when(taskRepository.findAll(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(taskPage);
+
+            // When
+            Page<Task> result = taskService.findTasks("active", "high", List.of(3L), null, null,
+                    "test", pageable);
+
+            // Then
+            assertThat(result.getContent()).hasSize(1);
+            verify(taskRepository).findAll(any(Specification.class), eq(pageable));
+            verifyNoMoreInteractions(taskRepository);
         }
     }
 
@@ -231,6 +554,7 @@ class TaskServiceImplTest {
             Task savedTask = taskCaptor.getValue();
             assertThat(savedTask.getTitle()).isEqualTo("New Task");
             assertThat(savedTask.getPriority()).isEqualTo(Task.Priority.high);
+            verify(eventPublisher).publishEvent(TaskChangedEvent.saved(TaskChangedEvent.Type.CREATED, sampleTask));
         }
 
         @Test
@@ -256,7 +580,7 @@ class TaskServiceImplTest {
             labelEntity2.setId(2L);
             labelEntity2.setName("Bug");
 
-            when(labelRepository.findAllById(anyList()))
+            when(labelCatalog.resolveExisting(anyList()))
                     .thenReturn(List.of(labelEntity1, labelEntity2));
             when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
 
@@ -270,6 +594,30 @@ class TaskServiceImplTest {
             assertThat(savedTask.getLabels()).hasSize(2);
         }
 
+        @Test
+        @DisplayName("Given several tasks, when createTasks is called, then resolve their labels at once and save each")
+        void givenSeveralTasks_whenCreateTasks_thenResolveLabelsOnce() {
+            // Given
+            List<TaskCreateDTO> createDTOs = List.of(
+                    TaskCreateDTO.builder().title("First").labels(List.of(new LabelDTO(1L, null, null))).build(),
+                    TaskCreateDTO.builder().title("Second").labels(List.of(new LabelDTO(2L, null, null))).build(),
+                    TaskCreateDTO.builder().title("Third").build());
+            when(labelCatalog.resolveExisting(List.of(1L, 2L))).thenReturn(List.of(
+                    Label.builder().id(1L).name("Feature").build(),
+                    Label.builder().id(2L).name("Bug").build()));
+            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            List<Task> result = taskService.createTasks(createDTOs);
+
+            // Then
+            assertThat(result).extracting(Task::getTitle).containsExactly("First", "Second", "Third");
+            assertThat(result.get(1).getLabels()).extracting(Label::getName).containsExactly("Bug");
+            assertThat(result.get(2).getLabels()).isEmpty();
+            verify(labelCatalog, times(1)).resolveExisting(anyList());
+            verify(eventPublisher, times(3)).publishEvent(any(TaskChangedEvent.class));
+        }
+
         @Test
         @DisplayName("Given no priority, when createTask is called, then default to medium priority")
         void givenNoPriority_whenCreateTask_thenDefaultToMediumPriority() {
@@ -321,6 +669,57 @@ class TaskServiceImplTest {
             // When & Then
             assertThrows(BizException.class, () -> taskService.getTaskById(999L));
         }
+
+        @Test
+        @DisplayName("Given a cached task, when getTaskSnapshot is called again, then skip the repository")
+        void givenCachedTask_whenGetTaskSnapshot_thenSkipRepository() {
+            // Given
+            Label label = Label.builder().id(5L).name("Feature").color("blue").build();
+            sampleTask.getLabels().add(label);
+            when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+
+            // When
+            TaskRow first = taskService.getTaskSnapshot(1L);
+            TaskRow second = taskService.getTaskSnapshot(1L);
+
+            // Then
+            assertThat(second).isSameAs(first);
+            assertThat(first.getTitle()).isEqualTo("Test Task");
+            assertThat(first.getLabels()).extracting(Label::getName).containsExactly("Feature");
+            assertThat(first.getLabels().get(0)).isNotSameAs(label);
+            verify(taskRepository, times(1)).findById(1L);
+            assertThat(taskCache.stats().hitCount()).isEqualTo(1);
+            assertThat(taskCache.stats().missCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Given an invalidated task, when getTaskSnapshot is called, then reload it")
+        void givenInvalidatedTask_whenGetTaskSnapshot_thenReload() {
+            // Given
+            when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+            taskService.getTaskSnapshot(1L);
+
+            // When
+            sampleTask.setTitle("Renamed Task");
+            taskCache.onTaskChanged(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, sampleTask));
+            TaskRow result = taskService.getTaskSnapshot(1L);
+
+            // Then
+            assertThat(result.getTitle()).isEqualTo("Renamed Task");
+            verify(taskRepository, times(2)).findById(1L);
+        }
+
+        @Test
+        @DisplayName("Given non-existing task ID, when getTaskSnapshot is called, then throw and cache nothing")
+        void givenNonExistingTaskId_whenGetTaskSnapshot_thenThrowException() {
+            // Given
+            when(taskRepository.findById(999L)).thenReturn(Optional.empty());
+
+            // When & Then
+            assertThrows(BizException.class, () -> taskService.getTaskSnapshot(999L));
+            assertThrows(BizException.class, () -> taskService.getTaskSnapshot(999L));
+            verify(taskRepository, times(2)).findById(999L);
+        }
     }
 
     @Nested
@@ -328,7 +727,7 @@ class TaskServiceImplTest {
     class UpdateTask {
 
         @Test
-        @DisplayName("Given existing task and update data, when updateTask is called, then update and return task")
+        @DisplayName("Given existing task and field updates, when updateTask is called, then update it in place without loading it")
         void givenExistingTaskAndUpdateData_whenUpdateTask_thenUpdateAndReturnTask() {
             // Given
             TaskUpdateDTO updateDTO = TaskUpdateDTO.builder()
@@ -337,22 +736,43 @@ class TaskServiceImplTest {
                     .priority("low")
                     .isCompleted(true)
                     .build();
+            TaskPatch patch = TaskPatch.builder()
+                    .title("Updated Title")
+                    .description("Updated Description")
+                    .priority(Task.Priority.low)
+                    .completed(true)
+                    .build();
+            TaskRow updated = new TaskRow(1L, "Updated Title", "Updated Description", null, Task.Priority.low, true,
+                    sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 1L, List.of(Label.builder().id(1L).build()));
 
-            when(taskRepository.findById(anyLong())).thenReturn(Optional.of(sampleTask));
-            when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
+            when(taskRepository.updateReturning(eq(1L), eq(patch), isNull(), any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(updated));
+            Label feature = Label.builder().id(1L).name("Feature").color("blue").build();
+            when(labelCatalog.resolve(Set.of(1L))).thenReturn(List.of(feature));
 
             // When
-            Task result = taskService.updateTask(1L, updateDTO);
+            TaskRow result = taskService.updateTask(1L, updateDTO);
 
             // Then
-            assertThat(result).isNotNull();
-            ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-            verify(taskRepository).save(taskCaptor.capture());
-            Task savedTask = taskCaptor.getValue();
-            assertThat(savedTask.getTitle()).isEqualTo("Updated Title");
-            assertThat(savedTask.getDescription()).isEqualTo("Updated Description");
-            assertThat(savedTask.getPriority()).isEqualTo(Task.Priority.low);
-            assertThat(savedTask.isCompleted()).isTrue();
+            assertThat(result.getTitle()).isEqualTo("Updated Title");
+            assertThat(result.isCompleted()).isTrue();
+            assertThat(result.getLabels()).containsExactly(feature);
+            verify(taskRepository, never()).findById(anyLong());
+            verify(taskRepository, never()).save(any(Task.class));
+            verify(eventPublisher).publishEvent(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, updated, Set.of(1L)));
+        }
+
+        @Test
+        @DisplayName("Given non-existing task ID, when updateTask is called, then throw exception")
+        void givenNonExistingTaskId_whenUpdateTask_thenThrowException() {
+            // Given
+            when(taskRepository.updateReturning(eq(999L), any(TaskPatch.class), isNull(), any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+
+            // When & Then
+            assertThrows(BizException.class,
+                    () -> taskService.updateTask(999L, TaskUpdateDTO.builder().title("Updated").build()));
+            verifyNoInteractions(eventPublisher);
         }
 
     }
@@ -374,6 +794,10 @@ class TaskServiceImplTest {
             // Then
             verify(taskRepository).findById(1L);
             verify(taskRepository).delete(sampleTask);
+            verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(1L));
+            ArgumentCaptor<TaskDeletion> deletionCaptor = ArgumentCaptor.forClass(TaskDeletion.class);
+            verify(taskDeletionRepository).save(deletionCaptor.capture());
+            assertThat(deletionCaptor.getValue().getTaskId()).isEqualTo(1L);
         }
 
         @Test
@@ -388,160 +812,544 @@ class TaskServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Find Changes")
+    class FindChanges {
+
+        private final TaskCursor start = TaskCursor.first("updatedAt", Sort.Direction.ASC);
+
+        @Test
+        @DisplayName("Given a first sync, when findChanges is called, then skip tombstones and stop short of recent changes")
+        void givenFirstSync_whenFindChanges_thenStopShortOfRecentChanges() {
+            // Given - the only task was just updated
+            when(taskRepository.findAfter(isNull(), eq(start), eq(11))).thenReturn(rowList);
+
+            // When
+            TaskChanges changes = taskService.findChanges(start, 10);
+
+            // Then
+            assertThat(changes.getTasks()).extracting(TaskRow::getId).containsExactly(1L);
+            assertThat(changes.getDeletedIds()).isEmpty();
+            assertThat(changes.isHasMore()).isFalse();
+            assertThat((LocalDateTime) changes.getWatermark().getLastValue()).isBefore(sampleTask.getUpdatedAt());
+            verifyNoInteractions(taskDeletionRepository);
+        }
+
+        @Test
+        @DisplayName("Given more changes than the limit, when findChanges is called, then continue right after the last one")
+        void givenMoreChanges_whenFindChanges_thenContinueAfterLastOne() {
+            // Given
+            TaskCursor since = TaskCursor.at("updatedAt", Sort.Direction.ASC, LocalDateTime.now().minusDays(1));
+            TaskRow other = new TaskRow(2L, "Other", null, null, Task.Priority.low, false,
+                    sampleTask.getCreatedAt(), sampleTask.getUpdatedAt().plusSeconds(1), 0L, List.of());
+            when(taskRepository.findAfter(isNull(), eq(since), eq(2))).thenReturn(List.of(rowList.get(0), other));
+            when(taskDeletionRepository.findAfter((LocalDateTime) since.getLastValue(), 0L, Limit.of(2)))
+                    .thenReturn(List.of(new TaskDeletion(7L, sampleTask.getUpdatedAt().plusSeconds(2))));
+
+            // When
+            TaskChanges changes = taskService.findChanges(since, 1);
+
+            // Then
+            assertThat(changes.getTasks()).extracting(TaskRow::getId).containsExactly(1L);
+            assertThat(changes.getDeletedIds()).isEmpty();
+            assertThat(changes.isHasMore()).isTrue();
+            assertThat(changes.getWatermark()).isEqualTo(since.after(rowList.get(0)));
+        }
+
+        @Test
+        @DisplayName("Given changes and deletions, when findChanges is called, then page through them as one timeline")
+        void givenChangesAndDeletions_whenFindChanges_thenPageThroughOneTimeline() {
+            // Given - task 7 deleted between the changes to tasks 1 and 2
+            LocalDateTime updatedAt = LocalDateTime.now().minusDays(1);
+            TaskCursor since = TaskCursor.at("updatedAt", Sort.Direction.ASC, updatedAt.minusHours(1));
+            TaskRow first = new TaskRow(1L, "First", null, null, Task.Priority.low, false, updatedAt, updatedAt,
+                    0L, List.of());
+            TaskRow second = new TaskRow(2L, "Second", null, null, Task.Priority.low, false, updatedAt,
+                    updatedAt.plusMinutes(2), 0L, List.of());
+            TaskDeletion tombstone = new TaskDeletion(7L, updatedAt.plusMinutes(1));
+            when(taskRepository.findAfter(isNull(), eq(since), eq(3))).thenReturn(List.of(first, second));
+            when(taskDeletionRepository.findAfter((LocalDateTime) since.getLastValue(), 0L, Limit.of(3)))
+                    .thenReturn(List.of(tombstone));
+
+            // When
+            TaskChanges changes = taskService.findChanges(since, 2);
+
+            // Then
+            assertThat(changes.getTasks()).extracting(TaskRow::getId).containsExactly(1L);
+            assertThat(changes.getDeletedIds()).containsExactly(7L);
+            assertThat(changes.isHasMore()).isTrue();
+            assertThat(changes.getWatermark()).isEqualTo(since.after(tombstone.getDeletedAt(), 7L));
+        }
+
+        @Test
+        @DisplayName("Given a watermark past the retention, when findChanges is called, then start a full sync")
+        void givenWatermarkPastRetention_whenFindChanges_thenStartFullSync() {
+            // Given
+            TaskCursor since = TaskCursor.at("updatedAt", Sort.Direction.ASC, LocalDateTime.now().minusDays(31));
+            TaskCursor start = TaskCursor.first("updatedAt", Sort.Direction.ASC);
+            when(taskRepository.findAfter(isNull(), eq(start), eq(11))).thenReturn(List.of());
+
+            // When
+            TaskChanges changes = taskService.findChanges(since, 10);
+
+            // Then
+            assertThat(changes.isResync()).isTrue();
+            assertThat(changes.getWatermark()).isEqualTo(start);
+            verifyNoInteractions(taskDeletionRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("List Version")
+    class ListVersion {
+
+        private final LocalDateTime settled = LocalDateTime.now().minusMinutes(1);
+
+        @Test
+        @DisplayName("Given settled changes, when getListVersion is called, then derive it from the database")
+        void givenSettledChanges_whenGetListVersion_thenDeriveFromDatabase() {
+            // Given
+            when(taskRepository.findLastUpdatedAt()).thenReturn(Optional.of(settled));
+            when(taskDeletionRepository.findLastDeletedAt()).thenReturn(Optional.empty());
+            OptionalLong version = taskService.getListVersion();
+
+            // When - another instance deletes a task
+            when(taskDeletionRepository.findLastDeletedAt()).thenReturn(Optional.of(settled.plusSeconds(1)));
+
+            // Then
+            assertThat(version).isPresent();
+            assertThat(taskService.getListVersion()).isPresent().isNotEqualTo(version);
+        }
+
+        @Test
+        @DisplayName("Given a label renamed, when getListVersion is called, then the version changes")
+        void givenLabelRenamed_whenGetListVersion_thenVersionChanges() {
+            // Given
+            when(taskRepository.findLastUpdatedAt()).thenReturn(Optional.of(settled));
+            when(labelCatalog.all()).thenReturn(List.of(Label.builder().id(1L).name("Bug").color("red").build()));
+            OptionalLong version = taskService.getListVersion();
+
+            // When
+            when(labelCatalog.all()).thenReturn(List.of(Label.builder().id(1L).name("Defect").color("red").build()));
+
+            // Then
+            assertThat(taskService.getListVersion()).isPresent().isNotEqualTo(version);
+        }
+
+        @Test
+        @DisplayName("Given a change within the settle time, when getListVersion is called, then return none")
+        void givenRecentChange_whenGetListVersion_thenReturnNone() {
+            // Given - an earlier-stamped write may still commit
+            when(taskRepository.findLastUpdatedAt()).thenReturn(Optional.of(LocalDateTime.now()));
+
+            // When/Then
+            assertThat(taskService.getListVersion()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Export Tasks")
+    class ExportTasks {
+
+        @Test
+        @DisplayName("Given more rows than the fetch size, when exportTasks is called, then hand them over in labelled chunks")
+        void givenMoreRowsThanFetchSize_whenExportTasks_thenHandOverLabelledChunks() {
+            // Given
+            exportProperties.setFetchSize(2);
+            List<TaskRow> rows = new ArrayList<>();
+            for (long id = 1; id <= 5; id++) {
+                rows.add(new TaskRow(id, "Task " + id, null, null, Task.Priority.low, false,
+                        sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of()));
+            }
+            when(taskRepository.streamRows(isNull(), eq(Sort.by("id")), eq(2))).thenReturn(rows.stream());
+            when(taskRepository.findLabelIdsByTaskIdIn(anyList())).thenReturn(List.of());
+            when(taskRepository.findLabelIdsByTaskIdIn(List.of(3L, 4L)))
+                    .thenReturn(List.of(new TaskLabelRow(4L, 7L)));
+            when(labelCatalog.resolve(anyList())).thenReturn(List.of());
+            when(labelCatalog.resolve(List.of(7L)))
+                    .thenReturn(List.of(Label.builder().id(7L).name("Feature").color("blue").build()));
+
+            // When
+            List<List<TaskRow>> chunks = new ArrayList<>();
+            taskService.exportTasks(TaskFilter.builder().build(), chunks::add);
+
+            // Then
+            assertThat(chunks).extracting(chunk -> chunk.stream().map(TaskRow::getId).toList())
+                    .containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+            assertThat(chunks.get(1).get(1).getLabels()).extracting(Label::getName).containsExactly("Feature");
+            assertThat(chunks.get(0).get(0).getLabels()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Given no matching rows, when exportTasks is called, then never call the sink")
+        void givenNoRows_whenExportTasks_thenNeverCallSink() {
+            // Given
+            when(taskRepository.streamRows(any(), any(), anyInt())).thenReturn(Stream.empty());
+
+            // When
+            List<List<TaskRow>> chunks = new ArrayList<>();
+            taskService.exportTasks(TaskFilter.builder().completed(true).build(), chunks::add);
+
+            // Then
+            assertThat(chunks).isEmpty();
+            verify(taskRepository, never()).findLabelIdsByTaskIdIn(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Import Tasks")
+    class ImportTasks {
+
+        private final Label feature = Label.builder().id(7L).name("Feature").color("blue").build();
+
+        @BeforeEach
+        void setUp() {
+            when(labelCatalog.all()).thenReturn(List.of(feature));
+        }
+
+        @Test
+        @DisplayName("Given valid and invalid lines, when importTasks is called, then insert the valid ones in batches")
+        void givenMixedLines_whenImportTasks_thenInsertValidLinesInBatches() {
+            // Given
+            importProperties.setBatchSize(2);
+            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            List<TaskImportLine> lines = List.of(
+                    TaskImportLine.of(2, TaskCreateDTO.builder().title("By name")
+                            .labels(List.of(LabelDTO.builder().name("feature").build())).build()),
+                    TaskImportLine.failed(3, "Malformed JSON"),
+                    TaskImportLine.of(4, TaskCreateDTO.builder().title("By id").priority("high")
+                            .labels(List.of(LabelDTO.builder().id(7L).build())).build()),
+                    TaskImportLine.of(5, TaskCreateDTO.builder().title(" ").build()),
+                    TaskImportLine.of(6, TaskCreateDTO.builder().title("Bad priority").priority("urgent").build()),
+                    TaskImportLine.of(7, TaskCreateDTO.builder().title("Unknown label")
+                            .labels(List.of(LabelDTO.builder().name("Bug").build())).build()),
+                    TaskImportLine.of(8, TaskCreateDTO.builder().title("Plain").build()));
+
+            // When
+            TaskImportResult result = taskService.importTasks(lines.iterator());
+
+            // Then
+            assertThat(result.getImported()).isEqualTo(3);
+            assertThat(result.getFailed()).isEqualTo(4);
+            assertThat(result.getErrors())
+                    .extracting(TaskImportResult.LineError::getLineNumber, TaskImportResult.LineError::getMessage)
+                    .containsExactly(
+                            tuple(3L, "Malformed JSON"),
+                            tuple(5L, "Title is required"),
+                            tuple(6L, "Unknown priority: urgent"),
+                            tuple(7L, "Unknown label: Bug"));
+
+            ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
+            verify(taskRepository, times(3)).save(taskCaptor.capture());
+            assertThat(taskCaptor.getAllValues())
+                    .extracting(Task::getTitle, Task::getPriority)
+                    .containsExactly(
+                            tuple("By name", Task.Priority.medium),
+                            tuple("By id", Task.Priority.high),
+                            tuple("Plain", Task.Priority.medium));
+            assertThat(taskCaptor.getAllValues().get(0).getLabels()).extracting(Label::getId).containsExactly(7L);
+            verify(transactionTemplate, times(2)).executeWithoutResult(any());
+            verify(labelCatalog).refresh();
+        }
+
+        @Test
+        @DisplayName("Given a batch the database rejects, when importTasks is called, then reject only the lines at fault")
+        void givenRejectedBatch_whenImportTasks_thenRejectOnlyFaultyLines() {
+            // Given
+            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+                Task task = invocation.getArgument(0);
+                if (task.getTitle().equals("Duplicate")) {
+                    throw new DataIntegrityViolationException("duplicate key");
+                }
+                return task;
+            });
+            Iterator<TaskImportLine> lines = List.of(
+                    TaskImportLine.of(1, TaskCreateDTO.builder().title("First").build()),
+                    TaskImportLine.of(2, TaskCreateDTO.builder().title("Duplicate").build()),
+                    TaskImportLine.of(3, TaskCreateDTO.builder().title("Third").build())).iterator();
+
+            // When
+            TaskImportResult result = taskService.importTasks(lines);
+
+            // Then - one batch attempt, then one transaction per task
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getErrors())
+                    .extracting(TaskImportResult.LineError::getLineNumber)
+                    .containsExactly(2L);
+            verify(transactionTemplate, times(4)).executeWithoutResult(any());
+        }
+
+        @Test
+        @DisplayName("Given more failing lines than reported, when importTasks is called, then count them all")
+        void givenManyFailingLines_whenImportTasks_thenCapReportedErrors() {
+            // Given
+            importProperties.setMaxErrors(2);
+            Iterator<TaskImportLine> lines = List.of(
+                    TaskImportLine.failed(1, "Malformed JSON"),
+                    TaskImportLine.failed(2, "Malformed JSON"),
+                    TaskImportLine.failed(3, "Malformed JSON")).iterator();
+
+            // When
+            TaskImportResult result = taskService.importTasks(lines);
+
+            // Then
+            assertThat(result.getFailed()).isEqualTo(3);
+            assertThat(result.getErrors()).hasSize(2);
+            verifyNoInteractions(taskRepository);
+        }
+    }
+
     @Nested
     @DisplayName("Batch Update Tasks")
     class BatchUpdateTasks {
 
         @Test
-        @DisplayName("Given batch update request, when batchUpdateTasks is called, then update and return tasks")
+        @DisplayName("Given batch update request, when batchUpdateTasks is called, then load tasks once and update them")
         void givenBatchUpdateRequest_whenBatchUpdateTasks_thenUpdateAndReturnTasks() {
             // Given
-            TaskUpdateDTO updateDTO1 = TaskUpdateDTO.builder()
-                    .title("Updated Task 1")
-                    .priority("high")
-                    .build();
+            BatchUpdateRequestDTO batchUpdateRequestDTO = batchRequest(
+                    batchItem(1L, TaskUpdateDTO.builder().title("Updated Task 1").priority("high").build()),
+                    batchItem(2L, TaskUpdateDTO.builder().title("Updated Task 2").isCompleted(true).build()));
 
-            TaskUpdateDTO updateDTO2 = TaskUpdateDTO.builder()
-                    .title("Updated Task 2")
-                    .isCompleted(true)
-                    .build();
+            Task task1 = Task.builder().id(1L).title("Task 1").priority(Task.Priority.low).build();
+            Task task2 = Task.builder().id(2L).title("Task 2").priority(Task.Priority.low).build();
 
-            BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem1 = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
-            batchItem1.setId(1L);
-            batchItem1.setTask(updateDTO1);
+            when(taskRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+            when(taskRepository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of(task1, task2));
 
-            BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem2 = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
-            batchItem2.setId(2L);
-            batchItem2.setTask(updateDTO2);
+            // When
+            TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
 
-            BatchUpdateRequestDTO batchUpdateRequestDTO = new BatchUpdateRequestDTO();
-            batchUpdateRequestDTO.setUpdates(List.of(batchItem1, batchItem2));
+            // Then
+            assertThat(result.getUpdated()).containsExactly(task1, task2);
+            assertThat(result.getItems()).extracting(TaskBatchResult.Item::getId, TaskBatchResult.Item::getStatus)
+                    .containsExactly(
+                            tuple(1L, TaskBatchResult.Status.updated),
+                            tuple(2L, TaskBatchResult.Status.updated));
+            assertThat(task1.getTitle()).isEqualTo("Updated Task 1");
+            assertThat(task1.getPriority()).isEqualTo(Task.Priority.high);
+            assertThat(task2.getTitle()).isEqualTo("Updated Task 2");
+            assertThat(task2.isCompleted()).isTrue();
+            verify(taskRepository, never()).findById(anyLong());
+            verify(taskRepository, never()).save(any(Task.class));
+            verify(eventPublisher, times(2)).publishEvent(any(TaskChangedEvent.class));
+        }
 
-            Task task1 = Task.builder()
-                    .id(1L)
-                    .title("Updated Task 1")
-                    .priority(Task.Priority.high)
-                    .build();
+        @Test
+        @DisplayName("Given batch update with non-existing task, when batchUpdateTasks is called, then report it as not found")
+        void givenBatchUpdateWithNonExistingTask_whenBatchUpdateTasks_thenSkipNonExistingTask() {
+            // Given
+            BatchUpdateRequestDTO batchUpdateRequestDTO = batchRequest(
+                    batchItem(1L, TaskUpdateDTO.builder().title("Updated Task 1").build()),
+                    batchItem(999L, TaskUpdateDTO.builder().title("Updated Task 2").build()));
 
-            Task task2 = Task.builder()
-                    .id(2L)
-                    .title("Updated Task 2")
-                    .isCompleted(true)
-                    .build();
+            when(taskRepository.findIdsByIdIn(List.of(1L, 999L))).thenReturn(List.of(1L));
+            when(taskRepository.findByIdIn(List.of(1L))).thenReturn(List.of(sampleTask));
 
-            when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
-            when(taskRepository.findById(2L)).thenReturn(Optional.of(sampleTask));
-            when(taskRepository.save(any(Task.class))).thenReturn(task1).thenReturn(task2);
+            // When
+            TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+
+            // Then
+            assertThat(result.getUpdated()).hasSize(1);
+            assertThat(result.getItems()).extracting(TaskBatchResult.Item::getId, TaskBatchResult.Item::getStatus)
+                    .containsExactly(
+                            tuple(1L, TaskBatchResult.Status.updated),
+                            tuple(999L, TaskBatchResult.Status.not_found));
+        }
+
+        @Test
+        @DisplayName("Given items with the same change, when batchUpdateTasks is called, then apply them with one bulk update")
+        void givenItemsWithSameChange_whenBatchUpdateTasks_thenApplyOneBulkUpdate() {
+            // Given
+            TaskUpdateDTO complete = TaskUpdateDTO.builder().isCompleted(true).build();
+            BatchUpdateRequestDTO batchUpdateRequestDTO = batchRequest(
+                    batchItem(1L, complete), batchItem(2L, complete), batchItem(3L, complete));
+
+            when(taskRepository.findIdsByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 2L, 3L));
+            when(taskRepository.findByIdIn(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                    Task.builder().id(1L).isCompleted(true).build(),
+                    Task.builder().id(2L).isCompleted(true).build(),
+                    Task.builder().id(3L).isCompleted(true).build()));
 
             // When
-            List<Task> result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+            TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
 
             // Then
-            assertThat(result).hasSize(2);
-            verify(taskRepository, times(2)).save(any(Task.class));
+            assertThat(result.getUpdated()).hasSize(3);
+            verify(taskRepository).updateAll(eq(List.of(1L, 2L, 3L)),
+                    eq(TaskPatch.builder().completed(true).build()), any(LocalDateTime.class));
         }
 
         @Test
-        @DisplayName("Given batch update with non-existing task, when batchUpdateTasks is called, then skip non-existing task")
-        void givenBatchUpdateWithNonExistingTask_whenBatchUpdateTasks_thenSkipNonExistingTask() {
+        @DisplayName("Given invalid items, when batchUpdateTasks is called, then report them without touching the database")
+        void givenInvalidItems_whenBatchUpdateTasks_thenReportThem() {
             // Given
-            TaskUpdateDTO updateDTO1 = TaskUpdateDTO.builder()
-                    .title("Updated Task 1")
-                    .build();
+            BatchUpdateRequestDTO batchUpdateRequestDTO = batchRequest(
+                    batchItem(1L, TaskUpdateDTO.builder().priority("urgent").build()),
+                    batchItem(2L, TaskUpdateDTO.builder().title(" ").build()),
+                    batchItem(3L, TaskUpdateDTO.builder().labels(List.of(LabelDTO.builder().id(9L).build())).build()),
+                    batchItem(null, TaskUpdateDTO.builder().title("No id").build()));
 
-            TaskUpdateDTO updateDTO2 = TaskUpdateDTO.builder()
-                    .title("Updated Task 2")
-                    .build();
+            when(labelCatalog.resolveExisting(List.of(9L))).thenReturn(List.of());
 
-            BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem1 = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
-            batchItem1.setId(1L);
-            batchItem1.setTask(updateDTO1);
+            // When
+            TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
 
-            BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem2 = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
-            batchItem2.setId(999L); // Non-existing ID
-            batchItem2.setTask(updateDTO2);
+            // Then
+            assertThat(result.getUpdated()).isEmpty();
+            assertThat(result.getItems()).extracting(TaskBatchResult.Item::getStatus, TaskBatchResult.Item::getMessage)
+                    .containsExactly(
+                            tuple(TaskBatchResult.Status.invalid, "Unknown priority: urgent"),
+                            tuple(TaskBatchResult.Status.invalid, "Title must not be blank"),
+                            tuple(TaskBatchResult.Status.invalid, "Unknown label id: 9"),
+                            tuple(TaskBatchResult.Status.invalid, "Task id and fields are required"));
+            verify(taskRepository, never()).findByIdIn(anyCollection());
+        }
 
-            BatchUpdateRequestDTO batchUpdateRequestDTO = new BatchUpdateRequestDTO();
-            batchUpdateRequestDTO.setUpdates(List.of(batchItem1, batchItem2));
+        @Test
+        @DisplayName("Given an item at a stale version, when batchUpdateTasks is called, then report a conflict and update the rest")
+        void givenItemAtStaleVersion_whenBatchUpdateTasks_thenReportConflict() {
+            // Given
+            BatchUpdateRequestDTO.TaskBatchUpdateDTO stale = batchItem(1L, TaskUpdateDTO.builder().title("Stale").build());
+            stale.setVersion(2L);
+            BatchUpdateRequestDTO batchUpdateRequestDTO = batchRequest(
+                    stale, batchItem(2L, TaskUpdateDTO.builder().title("Fresh").build()));
 
-            when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
-            when(taskRepository.findById(999L)).thenReturn(Optional.empty()); // Simulating non-existing task
-            when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
+            Task task1 = Task.builder().id(1L).title("Task 1").version(3).build();
+            Task task2 = Task.builder().id(2L).title("Task 2").version(3).build();
+            when(taskRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+            when(taskRepository.findByIdIn(List.of(1L, 2L))).thenReturn(List.of(task1, task2));
 
             // When
-            List<Task> result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+            TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
 
             // Then
-            assertThat(result).hasSize(1); // Only one task should be updated
-            verify(taskRepository, times(1)).save(any(Task.class));
+            assertThat(result.getUpdated()).containsExactly(task2);
+            assertThat(result.getItems()).extracting(TaskBatchResult.Item::getStatus, TaskBatchResult.Item::getMessage)
+                    .containsExactly(
+                            tuple(TaskBatchResult.Status.conflict, "Task is at version 3"),
+                            tuple(TaskBatchResult.Status.updated, null));
+            assertThat(task1.getTitle()).isEqualTo("Task 1");
+        }
+
+        private BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem(Long id, TaskUpdateDTO task) {
+            BatchUpdateRequestDTO.TaskBatchUpdateDTO batchItem = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
+            batchItem.setId(id);
+            batchItem.setTask(task);
+            return batchItem;
+        }
+
+        private BatchUpdateRequestDTO batchRequest(BatchUpdateRequestDTO.TaskBatchUpdateDTO... items) {
+            BatchUpdateRequestDTO batchUpdateRequestDTO = new BatchUpdateRequestDTO();
+            batchUpdateRequestDTO.setUpdates(List.of(items));
+            return batchUpdateRequestDTO;
         }
     }
 
     @Nested
-    @DisplayName("Toggle Task Completion")
-    class ToggleTaskCompletion {
+    @DisplayName("Bulk Mutations")
+    class BulkMutations {
 
         @Test
-        @DisplayName("Given incomplete task, when toggleTaskCompletion is called, then mark as complete")
-        void givenIncompleteTask_whenToggleTaskCompletion_thenMarkAsComplete() {
+        @DisplayName("Given matching tasks, when bulkUpdateTasks is called, then update them by id and publish their state")
+        void givenMatchingTasks_whenBulkUpdateTasks_thenUpdateByIdAndPublish() {
             // Given
-            Task task = Task.builder()
-                    .id(1L)
-                    .title("Test Task")
-                    .isCompleted(false)
+            TaskRow row1 = new TaskRow(1L, "Task 1", null, null, Task.Priority.low, false,
+                    sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of());
+            TaskRow row2 = new TaskRow(2L, "Task 2", null, null, Task.Priority.low, false,
+                    sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of());
+            when(taskRepository.streamRows(any(), eq(Sort.by("id")), anyInt())).thenReturn(Stream.of(row1, row2));
+            when(taskRepository.findLabelIdsByTaskIdIn(List.of(1L, 2L)))
+                    .thenReturn(List.of(new TaskLabelRow(1L, 7L), new TaskLabelRow(2L, 7L), new TaskLabelRow(2L, 8L)));
+            BulkUpdateRequestDTO request = BulkUpdateRequestDTO.builder()
+                    .isCompleted(true)
+                    .addLabelIds(List.of(7L))
                     .build();
 
-            when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
             // When
-            Task result = taskService.toggleTaskCompletion(1L);
+            int updated = taskService.bulkUpdateTasks(TaskFilter.builder().completed(false).build(), request);
 
             // Then
-            assertThat(result).isNotNull();
-            assertThat(result.isCompleted()).isTrue();
+            assertThat(updated).isEqualTo(2);
+            verify(taskRepository).updateAll(eq(List.of(1L, 2L)),
+                    eq(TaskPatch.builder().completed(true).build()), any(LocalDateTime.class));
+            verify(taskRepository).addLabels(List.of(1L, 2L), List.of(7L));
+            verify(taskRepository, never()).removeLabels(any(), any());
+            verify(eventPublisher).publishEvent(TaskChangedEvent.saved(TaskChangedEvent.Type.UPDATED, row2, Set.of(7L, 8L)));
+        }
 
-            ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-            verify(taskRepository).save(taskCaptor.capture());
-            Task savedTask = taskCaptor.getValue();
-            assertThat(savedTask.isCompleted()).isTrue();
+        @Test
+        @DisplayName("Given no filter, when bulkUpdateTasks is called, then throw exception")
+        void givenNoFilter_whenBulkUpdateTasks_thenThrowException() {
+            // Given
+            BulkUpdateRequestDTO request = BulkUpdateRequestDTO.builder().isCompleted(true).build();
+
+            // When/Then
+            assertThrows(BizException.class, () -> taskService.bulkUpdateTasks(TaskFilter.builder().build(), request));
+            verifyNoInteractions(taskRepository);
         }
 
         @Test
-        @DisplayName("Given complete task, when toggleTaskCompletion is called, then mark as incomplete")
-        void givenCompleteTask_whenToggleTaskCompletion_thenMarkAsIncomplete() {
+        @DisplayName("Given no changes, when bulkUpdateTasks is called, then throw exception")
+        void givenNoChanges_whenBulkUpdateTasks_thenThrowException() {
             // Given
-            Task task = Task.builder()
-                    .id(1L)
-                    .title("Test Task")
-                    .isCompleted(true)
-                    .build();
+            TaskFilter filter = TaskFilter.builder().completed(false).build();
 
-            when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
-            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            // When/Then
+            assertThrows(BizException.class, () -> taskService.bulkUpdateTasks(filter, new BulkUpdateRequestDTO()));
+            verifyNoInteractions(taskRepository);
+        }
+
+        @Test
+        @DisplayName("Given matching tasks, when bulkDeleteTasks is called, then delete them by id and record tombstones")
+        void givenMatchingTasks_whenBulkDeleteTasks_thenDeleteByIdAndRecordTombstones() {
+            // Given
+            when(taskRepository.findIds(any())).thenReturn(List.of(1L, 2L));
 
             // When
-            Task result = taskService.toggleTaskCompletion(1L);
+            int deleted = taskService.bulkDeleteTasks(TaskFilter.builder().completed(true).build());
 
             // Then
-            assertThat(result).isNotNull();
-            assertThat(result.isCompleted()).isFalse();
+            assertThat(deleted).isEqualTo(2);
+            verify(taskRepository).removeAllLabels(List.of(1L, 2L));
+            verify(taskRepository).deleteAllByIdIn(List.of(1L, 2L));
+            verify(taskDeletionRepository).saveAll(argThat(deletions -> deletions instanceof List<?> list && list.size() == 2));
+            verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(1L));
+            verify(eventPublisher).publishEvent(TaskChangedEvent.deleted(2L));
+        }
+    }
 
-            ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-            verify(taskRepository).save(taskCaptor.capture());
-            Task savedTask = taskCaptor.getValue();
-            assertThat(savedTask.isCompleted()).isFalse();
+    @Nested
+    @DisplayName("Toggle Task Completion")
+    class ToggleTaskCompletion {
+
+        @Test
+        @DisplayName("Given existing task, when toggleTaskCompletion is called, then flip it in the database and return the new state")
+        void givenExistingTask_whenToggleTaskCompletion_thenFlipInDatabase() {
+            // Given
+            TaskRow toggled = new TaskRow(1L, "Test Task", null, null, Task.Priority.medium, true,
+                    sampleTask.getCreatedAt(), sampleTask.getUpdatedAt(), 0L, List.of());
+            when(taskRepository.toggleCompletion(eq(1L), any(LocalDateTime.class))).thenReturn(Optional.of(toggled));
+
+            // When
+            TaskRow result = taskService.toggleTaskCompletion(1L);
+
+            // Then
+            assertThat(result.isCompleted()).isTrue();
+            verify(taskRepository, never()).findById(anyLong());
+            verify(taskRepository, never()).save(any(Task.class));
+            verify(eventPublisher).publishEvent(TaskChangedEvent.saved(TaskChangedEvent.Type.TOGGLED, toggled, Set.of()));
         }
 
         @Test
         @DisplayName("Given non-existing task ID, when toggleTaskCompletion is called, then throw exception")
         void givenNonExistingTaskId_whenToggleTaskCompletion_thenThrowException() {
             // Given
-            when(taskRepository.findById(anyLong())).thenReturn(Optional.empty());
+            when(taskRepository.toggleCompletion(eq(999L), any(LocalDateTime.class))).thenReturn(Optional.empty());
 
             // When & Then
             assertThrows(BizException.class, () -> taskService.toggleTaskCompletion(999L));
-            verify(taskRepository, never()).save(any(Task.class));
+            verifyNoInteractions(eventPublisher);
         }
     }
 
@@ -571,11 +1379,11 @@ class TaskServiceImplTest {
             labelEntity2.setName("Bug");
 
             when(taskRepository.findById(anyLong())).thenReturn(Optional.of(sampleTask));
-            when(labelRepository.findAllById(anyList())).thenReturn(List.of(labelEntity1, labelEntity2));
+            when(labelCatalog.resolveExisting(anyList())).thenReturn(List.of(labelEntity1, labelEntity2));
             when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
 
             // When
-            Task result = taskService.updateTask(1L, updateDTO);
+            TaskRow result = taskService.updateTask(1L, updateDTO);
 
             // Then
             assertThat(result).isNotNull();
@@ -586,7 +1394,7 @@ class TaskServiceImplTest {
             assertThat(savedTask.getLabels()).hasSize(2);
 
             ArgumentCaptor<List<Long>> labelIdsCaptor = ArgumentCaptor.forClass(List.class);
-            verify(labelRepository).findAllById(labelIdsCaptor.capture());
+            verify(labelCatalog).resolveExisting(labelIdsCaptor.capture());
             List<Long> capturedLabelIds = labelIdsCaptor.getValue();
             assertThat(capturedLabelIds).containsExactlyInAnyOrder(1L, 2L);
         }
@@ -595,23 +1403,49 @@ class TaskServiceImplTest {
         @DisplayName("Given invalid priority in update, when updateTask is called, then keep existing priority")
         void givenInvalidPriorityInUpdate_whenUpdateTask_thenKeepExistingPriority() {
             // Given
-            Task.Priority originalPriority = sampleTask.getPriority();
             TaskUpdateDTO updateDTO = TaskUpdateDTO.builder()
                     .title("Updated Task")
                     .priority("invalid_priority")
                     .build();
 
-            when(taskRepository.findById(anyLong())).thenReturn(Optional.of(sampleTask));
-            when(taskRepository.save(any(Task.class))).thenReturn(sampleTask);
+            when(taskRepository.updateReturning(anyLong(), any(TaskPatch.class), isNull(), any(LocalDateTime.class)))
+                    .thenReturn(Optional.of(TaskRow.of(sampleTask)));
 
             // When
             taskService.updateTask(1L, updateDTO);
 
             // Then
-            ArgumentCaptor<Task> taskCaptor = ArgumentCaptor.forClass(Task.class);
-            verify(taskRepository).save(taskCaptor.capture());
-            Task savedTask = taskCaptor.getValue();
-            assertThat(savedTask.getPriority()).isEqualTo(originalPriority);
+            ArgumentCaptor<TaskPatch> patchCaptor = ArgumentCaptor.forClass(TaskPatch.class);
+            verify(taskRepository).updateReturning(eq(1L), patchCaptor.capture(), isNull(), any(LocalDateTime.class));
+            assertThat(patchCaptor.getValue().getTitle()).isEqualTo("Updated Task");
+            assertThat(patchCaptor.getValue().getPriority()).isNull();
+        }
+
+        @Test
+        @DisplayName("Given a stale expected version, when updateTask is called, then throw version mismatch")
+        void givenStaleExpectedVersion_whenUpdateTask_thenThrowVersionMismatch() {
+            // Given
+            TaskUpdateDTO updateDTO = TaskUpdateDTO.builder().title("Updated Task").build();
+            when(taskRepository.updateReturning(eq(1L), any(TaskPatch.class), eq(3L), any(LocalDateTime.class)))
+                    .thenReturn(Optional.empty());
+            when(taskRepository.existsById(1L)).thenReturn(true);
+
+            // When/Then
+            assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(1L, updateDTO, 3L));
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Given a stale expected version with labels, when updateTask is called, then leave the task untouched")
+        void givenStaleExpectedVersionWithLabels_whenUpdateTask_thenLeaveTaskUntouched() {
+            // Given
+            sampleTask.setVersion(4);
+            TaskUpdateDTO updateDTO = TaskUpdateDTO.builder().labels(List.of()).build();
+            when(taskRepository.findById(1L)).thenReturn(Optional.of(sampleTask));
+
+            // When/Then
+            assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(1L, updateDTO, 3L));
+            verify(taskRepository, never()).save(any(Task.class));
         }
     }
 }
\ No newline at end of file
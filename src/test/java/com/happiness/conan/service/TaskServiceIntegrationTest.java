@@ -3,9 +3,20 @@ package com.happiness.conan.service;
 import com.happiness.conan.domain.model.Label;
 import com.happiness.conan.domain.model.Task;
 import com.happiness.conan.domain.repository.LabelRepository;
+import com.happiness.conan.domain.repository.TaskChanges;
+import com.happiness.conan.domain.repository.TaskCountMode;
+import com.happiness.conan.domain.repository.TaskCursor;
+import com.happiness.conan.domain.repository.TaskFilter;
 import com.happiness.conan.domain.repository.TaskRepository;
+import com.happiness.conan.domain.repository.TaskRow;
 import com.happiness.conan.exception.BizException;
+import com.happiness.conan.exception.TaskVersionMismatchException;
 import com.happiness.conan.web.dto.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,11 +25,17 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -37,6 +54,12 @@ public class TaskServiceIntegrationTest {
     @Autowired
     private LabelRepository labelRepository;
 
+    @Autowired
+    private LabelCatalog labelCatalog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Label featureLabel;
     private Label bugLabel;
     private Task testTask;
@@ -94,6 +117,28 @@ public class TaskServiceIntegrationTest {
         assertThat(persistedTask.getLabels()).hasSize(2);
     }
 
+    @Test
+    @DisplayName("When listing changes, created and updated tasks and deleted ids should be reported")
+    void whenFindChanges_thenTasksAndTombstonesAreReported() {
+        // Given
+        TaskCursor since = TaskCursor.at("updatedAt", Sort.Direction.ASC, LocalDateTime.now().minusMinutes(1));
+        Task created = taskService.createTask(TaskCreateDTO.builder().title("Changed task").build());
+        taskService.deleteTask(testTask.getId());
+
+        // When
+        TaskChanges changes = taskService.findChanges(since, 100);
+
+        // Then
+        assertThat(changes.getTasks()).extracting(TaskRow::getId).contains(created.getId());
+        assertThat(changes.getTasks()).extracting(TaskRow::getId).doesNotContain(testTask.getId());
+        assertThat(changes.getDeletedIds()).contains(testTask.getId());
+        assertThat(changes.isHasMore()).isFalse();
+        // Everything changed within the settle time, so the watermark stops short of it
+        assertThat((LocalDateTime) changes.getWatermark().getLastValue())
+                .isAfter((LocalDateTime) since.getLastValue())
+                .isBefore(created.getUpdatedAt());
+    }
+
     @Test
     @DisplayName("When updating a task, changes should be saved in the database")
     void whenUpdateTask_thenChangesAreSavedInDatabase() {
@@ -107,7 +152,7 @@ public class TaskServiceIntegrationTest {
                 .build();
 
         // When
-        Task updatedTask = taskService.updateTask(testTask.getId(), updateDTO);
+        TaskRow updatedTask = taskService.updateTask(testTask.getId(), updateDTO);
 
         // Then
         assertThat(updatedTask).isNotNull();
@@ -120,6 +165,24 @@ public class TaskServiceIntegrationTest {
         assertThat(persistedTask.getLabels()).hasSize(1);
     }
 
+    @Test
+    @DisplayName("When only the labels of a task change, its update time should still move")
+    void whenUpdateTaskLabelsOnly_thenUpdatedAtMoves() {
+        // Given
+        LocalDateTime before = testTask.getUpdatedAt();
+
+        // When
+        taskService.updateTask(testTask.getId(), TaskUpdateDTO.builder()
+                .labels(List.of(new LabelDTO(bugLabel.getId(), null, null)))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        Task persistedTask = taskRepository.findById(testTask.getId()).orElseThrow();
+        assertThat(persistedTask.getUpdatedAt()).isAfter(before);
+    }
+
     @Test
     @DisplayName("When finding tasks with filters, should return matching tasks")
     void whenFindTasksWithFilters_thenReturnMatchingTasks() {
@@ -162,6 +225,124 @@ public class TaskServiceIntegrationTest {
                         (task.getDescription() != null && task.getDescription().contains("Integration")));
     }
 
+    @Test
+    @DisplayName("When finding tasks with several filters, all of them should be applied")
+    void whenFindTasksWithSeveralFilters_thenAllFiltersAreApplied() {
+        // Given
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Active high bug")
+                .priority("high")
+                .labels(List.of(new LabelDTO(bugLabel.getId(), null, null)))
+                .build());
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Completed high bug")
+                .priority("high")
+                .isCompleted(true)
+                .labels(List.of(new LabelDTO(bugLabel.getId(), null, null)))
+                .build());
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Active low bug")
+                .priority("low")
+                .labels(List.of(new LabelDTO(bugLabel.getId(), null, null)))
+                .build());
+
+        // When
+        Page<Task> tasks = taskService.findTasks("active", "high", List.of(bugLabel.getId()),
+                null, null, null, PageRequest.of(0, 10));
+
+        // Then
+        assertThat(tasks.getContent()).extracting(Task::getTitle).containsExactly("Active high bug");
+    }
+
+    @Test
+    @DisplayName("When listing tasks, the statement count should not depend on the page size")
+    void whenListTasks_thenStatementCountIsConstantRegardlessOfPageSize() {
+        // Given - tasks carrying labels
+        for (int i = 0; i < 30; i++) {
+            taskService.createTask(TaskCreateDTO.builder()
+                    .title("Labelled task " + i)
+                    .labels(List.of(
+                            new LabelDTO(featureLabel.getId(), null, null),
+                            new LabelDTO(bugLabel.getId(), null, null)))
+                    .build());
+        }
+
+        // When
+        long smallPageStatements = countStatementsToListTasks(5);
+        long largePageStatements = countStatementsToListTasks(30);
+
+        // Then - one page query, one count query and one label query
+        assertThat(smallPageStatements).isEqualTo(3);
+        assertThat(largePageStatements).isEqualTo(smallPageStatements);
+    }
+
+    private long countStatementsToListTasks(int pageSize) {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        Page<Task> tasks = taskService.findTasks(null, null, null, null, null, null, PageRequest.of(0, pageSize));
+        List<TaskDTO> taskDTOs = tasks.map(TaskDTO::fromEntity).getContent();
+
+        assertThat(taskDTOs).hasSize(pageSize);
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    @DisplayName("When listing task rows, labels should be attached without managing any entity")
+    void whenListTaskRows_thenNoEntityIsManaged() {
+        // Given
+        taskService.createTask(TaskCreateDTO.builder()
+                .title("Labelled task")
+                .labels(List.of(new LabelDTO(featureLabel.getId(), null, null)))
+                .build());
+        // The test transaction never commits, load its labels as a commit would
+        labelCatalog.refresh();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        Slice<TaskRow> rows = taskService.listTasks(TaskFilter.builder().build(),
+                PageRequest.of(0, 10, Sort.by("createdAt")), TaskCountMode.exact);
+
+        // Then - one page query and one label query, the count is skipped on a short first page
+        assertThat(rows.getContent()).extracting(TaskRow::getTitle).containsExactly("Integration Test Task", "Labelled task");
+        assertThat(rows.getContent().get(1).getLabels()).extracting(Label::getName).containsExactly("Feature");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("When getting a task by id, its labels should be loaded with the task")
+    void whenGetTaskById_thenLabelsAreLoadedInOneStatement() {
+        // Given
+        Task task = taskService.createTask(TaskCreateDTO.builder()
+                .title("Labelled task")
+                .labels(List.of(new LabelDTO(featureLabel.getId(), null, null)))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        TaskDTO taskDTO = TaskDTO.fromEntity(taskService.getTaskById(task.getId()));
+
+        // Then
+        assertThat(taskDTO.getLabels()).hasSize(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
     @Test
     @DisplayName("When deleting a task, it should be removed from the database")
     void whenDeleteTask_thenTaskIsRemovedFromDatabase() {
@@ -222,10 +403,12 @@ public class TaskServiceIntegrationTest {
         batchUpdateRequestDTO.setUpdates(List.of(batchItem1, batchItem2));
 
         // When
-        List<Task> updatedTasks = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+        TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+        entityManager.flush();
+        entityManager.clear();
 
         // Then
-        assertThat(updatedTasks).hasSize(2);
+        assertThat(result.getUpdated()).hasSize(2);
 
         Task persistedTask1 = taskRepository.findById(task1.getId()).orElse(null);
         assertThat(persistedTask1).isNotNull();
@@ -245,7 +428,8 @@ public class TaskServiceIntegrationTest {
         boolean initialStatus = testTask.isCompleted();
 
         // When
-        Task updatedTask = taskService.toggleTaskCompletion(testTask.getId());
+        TaskRow updatedTask = taskService.toggleTaskCompletion(testTask.getId());
+        entityManager.clear();
 
         // Then
         assertThat(updatedTask.isCompleted()).isEqualTo(!initialStatus);
@@ -254,4 +438,274 @@ public class TaskServiceIntegrationTest {
         assertThat(persistedTask).isNotNull();
         assertThat(persistedTask.isCompleted()).isEqualTo(!initialStatus);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("When toggling or patching fields of a task, one statement should update it and read it back")
+    void whenToggleOrPatchTask_thenOneStatementRunsWithoutPriorSelect() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        TaskRow toggled = taskService.toggleTaskCompletion(testTask.getId());
+        TaskRow toggledBack = taskService.toggleTaskCompletion(testTask.getId());
+        TaskRow patched = taskService.updateTask(testTask.getId(), TaskUpdateDTO.builder()
+                .title("Patched in place")
+                .priority("high")
+                .build());
+
+        // Then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(toggled.isCompleted()).isTrue();
+        assertThat(toggledBack.isCompleted()).isFalse();
+        assertThat(patched.getTitle()).isEqualTo("Patched in place");
+        assertThat(patched.getPriority()).isEqualTo(Task.Priority.high);
+        assertThat(patched.getDescription()).isEqualTo(testTask.getDescription());
+        assertThat(patched.getUpdatedAt()).isAfterOrEqualTo(testTask.getUpdatedAt());
+    }
+
+    @Test
+    @DisplayName("When patching fields of a labelled task, its labels should be read back with it")
+    void whenPatchLabelledTask_thenLabelsAreReturned() {
+        // Given
+        testTask.setLabels(new HashSet<>(Set.of(featureLabel, bugLabel)));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        TaskRow patched = taskService.updateTask(testTask.getId(), TaskUpdateDTO.builder().isCompleted(true).build());
+
+        // Then
+        assertThat(patched.isCompleted()).isTrue();
+        assertThat(patched.getLabels()).extracting(Label::getName).containsExactly("Feature", "Bug");
+    }
+
+    @Test
+    @DisplayName("When updating a task by any path, its version should go up and a stale version be refused")
+    void whenUpdateTask_thenVersionIsBumpedAndStaleVersionRefused() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+        long version = taskRepository.findById(testTask.getId()).orElseThrow().getVersion();
+        entityManager.clear();
+
+        // When
+        TaskRow toggled = taskService.toggleTaskCompletion(testTask.getId());
+        TaskRow patched = taskService.updateTask(testTask.getId(),
+                TaskUpdateDTO.builder().title("Versioned").build(), toggled.getVersion());
+        TaskRow relabelled = taskService.updateTask(testTask.getId(),
+                TaskUpdateDTO.builder().labels(List.of(new LabelDTO(bugLabel.getId(), null, null))).build(),
+                patched.getVersion());
+        entityManager.clear();
+
+        // Then
+        assertThat(toggled.getVersion()).isEqualTo(version + 1);
+        assertThat(patched.getVersion()).isEqualTo(version + 2);
+        assertThat(relabelled.getVersion()).isEqualTo(version + 3);
+        assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(testTask.getId(),
+                TaskUpdateDTO.builder().title("Lost update").build(), patched.getVersion()));
+        assertThrows(TaskVersionMismatchException.class, () -> taskService.updateTask(testTask.getId(),
+                TaskUpdateDTO.builder().labels(List.of()).build(), patched.getVersion()));
+        assertThat(taskRepository.findById(testTask.getId()).orElseThrow().getTitle()).isEqualTo("Versioned");
+    }
+
+    @Test
+    @DisplayName("When importing tasks, valid lines should be saved with their labels and invalid ones reported")
+    void whenImportTasks_thenValidLinesAreSaved() {
+        // Given - a name no other test uses, names must be unique to resolve
+        Label imported = labelRepository.save(Label.builder().name("Imported").color("green").build());
+        Iterator<TaskImportLine> lines = List.of(
+                TaskImportLine.of(1, TaskCreateDTO.builder()
+                        .title("Imported task")
+                        .labels(List.of(new LabelDTO(null, "imported", null)))
+                        .build()),
+                TaskImportLine.of(2, TaskCreateDTO.builder()
+                        .title("Unlabelled task")
+                        .labels(List.of(new LabelDTO(Long.MAX_VALUE, null, null)))
+                        .build())).iterator();
+
+        // When
+        TaskImportResult result = taskService.importTasks(lines);
+
+        // Then
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(TaskImportResult.LineError::getMessage)
+                .containsExactly("Unknown label id: " + Long.MAX_VALUE);
+
+        entityManager.flush();
+        entityManager.clear();
+        Task saved = taskRepository.findAll().stream()
+                .filter(task -> task.getTitle().equals("Imported task"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(saved.getLabels()).extracting(Label::getId).containsExactly(imported.getId());
+    }
+
+    @Test
+    @DisplayName("When creating tasks in a batch, inserts should go out in a few batched statements")
+    void whenCreateTasks_thenInsertsAreBatched() {
+        // Given
+        List<TaskCreateDTO> createDTOs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            createDTOs.add(TaskCreateDTO.builder()
+                    .title("Batched task " + i)
+                    .labels(List.of(new LabelDTO(featureLabel.getId(), null, null)))
+                    .build());
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        List<Task> created = taskService.createTasks(createDTOs);
+        entityManager.flush();
+
+        // Then - one label id check, sequence calls for an id block, one batched insert into
+        // tasks and one into task_labels
+        assertThat(created).extracting(Task::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(40);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+        assertThat(taskRepository.findLabelIdsByTaskIdIn(created.stream().map(Task::getId).toList())).hasSize(40);
+    }
+
+    @Test
+    @DisplayName("When batch updating many tasks, they should be read once and written in a few statements")
+    void whenBatchUpdateTasks_thenStatementsAreSetBased() {
+        // Given - half the items complete their task, the others rename theirs
+        List<BatchUpdateRequestDTO.TaskBatchUpdateDTO> items = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Task task = taskRepository.save(Task.builder().title("Task " + i).priority(Task.Priority.medium).build());
+            BatchUpdateRequestDTO.TaskBatchUpdateDTO item = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
+            item.setId(task.getId());
+            item.setTask(i % 2 == 0
+                    ? TaskUpdateDTO.builder().isCompleted(true).build()
+                    : TaskUpdateDTO.builder().title("Renamed " + i).build());
+            items.add(item);
+        }
+        BatchUpdateRequestDTO.TaskBatchUpdateDTO missing = new BatchUpdateRequestDTO.TaskBatchUpdateDTO();
+        missing.setId(-1L);
+        missing.setTask(TaskUpdateDTO.builder().isCompleted(true).build());
+        items.add(missing);
+        BatchUpdateRequestDTO batchUpdateRequestDTO = new BatchUpdateRequestDTO();
+        batchUpdateRequestDTO.setUpdates(items);
+
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        TaskBatchResult result = taskService.batchUpdateTasks(batchUpdateRequestDTO);
+        entityManager.flush();
+
+        // Then - id check, one bulk update, one load, one batched update of the renamed tasks
+        assertThat(result.getUpdated()).hasSize(40);
+        assertThat(result.getItems().get(40).getStatus()).isEqualTo(TaskBatchResult.Status.not_found);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(4);
+
+        entityManager.clear();
+        assertThat(taskRepository.findById(items.get(0).getId()).orElseThrow().isCompleted()).isTrue();
+        assertThat(taskRepository.findById(items.get(1).getId()).orElseThrow().getTitle()).isEqualTo("Renamed 1");
+    }
+
+    @Test
+    @DisplayName("When bulk updating by filter, matching tasks should change in a few set-based statements")
+    void whenBulkUpdateTasks_thenMatchingTasksChange() {
+        // Given
+        List<Long> lowIds = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Task task = Task.builder().title("Low " + i).priority(Task.Priority.low).build();
+            task.setLabels(new HashSet<>(Set.of(bugLabel)));
+            lowIds.add(taskRepository.save(task).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        // When
+        int updated = taskService.bulkUpdateTasks(TaskFilter.builder().priority(Task.Priority.low).build(),
+                BulkUpdateRequestDTO.builder()
+                        .isCompleted(true)
+                        .addLabelIds(List.of(featureLabel.getId()))
+                        .removeLabelIds(List.of(bugLabel.getId()))
+                        .build());
+
+        // Then - read, update, label removal, label insertion, label read-back
+        assertThat(updated).isEqualTo(30);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+
+        entityManager.clear();
+        List<Task> tasks = taskRepository.findByIdIn(lowIds);
+        assertThat(tasks).hasSize(30).allSatisfy(task -> {
+            assertThat(task.isCompleted()).isTrue();
+            assertThat(task.getLabels()).extracting(Label::getId).containsExactly(featureLabel.getId());
+        });
+        assertThat(taskRepository.findById(testTask.getId()).orElseThrow().isCompleted()).isFalse();
+    }
+
+    @Test
+    @DisplayName("When bulk deleting by filter, matching tasks should be deleted and reported as tombstones")
+    void whenBulkDeleteTasks_thenMatchingTasksAreDeleted() {
+        // Given
+        List<Long> lowIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Task task = Task.builder().title("Low " + i).priority(Task.Priority.low).build();
+            task.setLabels(new HashSet<>(Set.of(featureLabel)));
+            lowIds.add(taskRepository.save(task).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        int deleted = taskService.bulkDeleteTasks(TaskFilter.builder().priority(Task.Priority.low).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(deleted).isEqualTo(5);
+        assertThat(taskRepository.findIdsByIdIn(lowIds)).isEmpty();
+        assertThat(taskRepository.existsById(testTask.getId())).isTrue();
+        TaskChanges changes = taskService.findChanges(
+                TaskCursor.at("updatedAt", Sort.Direction.ASC, LocalDateTime.now().minusMinutes(1)), 100);
+        assertThat(changes.getDeletedIds()).containsAll(lowIds);
+    }
+
+    @Test
+    @DisplayName("When listing changes after a bulk delete, its tombstones should be paged like changed tasks")
+    void whenFindChangesAfterBulkDelete_thenTombstonesArePaged() {
+        // Given - tombstones sharing one deletion time
+        TaskCursor since = TaskCursor.at("updatedAt", Sort.Direction.ASC, LocalDateTime.now().minusMinutes(1));
+        List<Long> lowIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            lowIds.add(taskRepository.save(Task.builder().title("Low " + i).priority(Task.Priority.low).build()).getId());
+        }
+        taskService.bulkDeleteTasks(TaskFilter.builder().priority(Task.Priority.low).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        // When - read two changes at a time
+        List<Long> deletedIds = new ArrayList<>();
+        TaskChanges changes;
+        do {
+            changes = taskService.findChanges(since, 2);
+            assertThat(changes.getTasks().size() + changes.getDeletedIds().size()).isLessThanOrEqualTo(2);
+            deletedIds.addAll(changes.getDeletedIds());
+            since = changes.getWatermark();
+        } while (changes.isHasMore());
+
+        // Then
+        assertThat(deletedIds).containsAll(lowIds).doesNotHaveDuplicates();
+    }
+}